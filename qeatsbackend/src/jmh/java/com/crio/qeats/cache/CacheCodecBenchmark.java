@@ -0,0 +1,132 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the close-by cache codecs on a cell entry of {@code restaurants} restaurant ids and
+ * on the catalog record of a single restaurant.
+ * The encoded sizes are reported as the encodedBytes secondary result of the encode benchmarks.
+ *
+ * <p>./gradlew :qeatsbackend:jmh -PjmhArgs="CacheCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+  /**
+   * Size of the last encoded value, reported next to the time of the benchmarks using it.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+    public long encodedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      encodedBytes = 0;
+    }
+  }
+
+  @Param({"json", "smile", "json+lz4", "smile+lz4"})
+  private String codecName;
+
+  @Param({"50", "500"})
+  private int restaurants;
+
+  private CacheCodec<CloseByCacheEntry> codec;
+  private CloseByCacheEntry entry;
+  private byte[] encoded;
+
+  private CacheCodec<Restaurant> restaurantCodec;
+  private Restaurant restaurant;
+  private byte[] encodedRestaurant;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    String[] parts = codecName.split("\\+");
+    codec = CacheCodecs.forFormat(parts[0], CloseByCacheEntry.class,
+        parts.length > 1 ? 1024 : -1);
+    List<Restaurant> sample = sampleRestaurants(restaurants);
+    List<String> restaurantIds = new ArrayList<>();
+    for (Restaurant sampleRestaurant : sample) {
+      restaurantIds.add(sampleRestaurant.getRestaurantId());
+    }
+    entry = new CloseByCacheEntry(System.currentTimeMillis() + 60_000, restaurantIds);
+    encoded = codec.encode(entry);
+
+    restaurantCodec = CacheCodecs.forFormat(parts[0], Restaurant.class, -1);
+    restaurant = sample.get(0);
+    encodedRestaurant = restaurantCodec.encode(restaurant);
+  }
+
+  @Benchmark
+  public byte[] encode(EncodedSize encodedSize) throws IOException {
+    byte[] value = codec.encode(entry);
+    encodedSize.encodedBytes = value.length;
+    return value;
+  }
+
+  @Benchmark
+  public CloseByCacheEntry decode() throws IOException {
+    return codec.decode(encoded);
+  }
+
+  @Benchmark
+  public byte[] encodeRestaurant(EncodedSize encodedSize) throws IOException {
+    byte[] value = restaurantCodec.encode(restaurant);
+    encodedSize.encodedBytes = value.length;
+    return value;
+  }
+
+  @Benchmark
+  public Restaurant decodeRestaurant() throws IOException {
+    return restaurantCodec.decode(encodedRestaurant);
+  }
+
+  static List<Restaurant> sampleRestaurants(int count) {
+    Random random = new Random(42);
+    List<String> cuisines = Arrays.asList("North Indian", "South Indian", "Chinese", "Mughlai",
+        "Desserts", "Biryani", "Fast Food", "Cafe", "Bakery", "Beverages");
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      List<String> attributes = new ArrayList<>();
+      for (int j = 0; j < 3; j++) {
+        attributes.add(cuisines.get(random.nextInt(cuisines.size())));
+      }
+      restaurants.add(new Restaurant(String.valueOf(10_000 + i), "Restaurant " + i,
+          "Bengaluru", "https://images.qeats.example/restaurants/" + i + ".jpg",
+          12.9 + random.nextDouble() / 10, 77.6 + random.nextDouble() / 10,
+          "10:00", "23:00", attributes));
+    }
+    return restaurants;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.models.SearchKeywords;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Compares the regex queries of the default search backend with the keyword queries of
+ * {@link SearchKeywordsIndex} on {@code restaurants} generated restaurants.
+ * Needs a running Mongo, by default on localhost, where it creates and then drops a scratch
+ * database.
+ *
+ * <p>./gradlew :qeatsbackend:jmh -PjmhArgs="SearchBackendBenchmark
+ *     -jvmArgs -Dqeats.benchmark.mongodb.uri=mongodb://localhost:27017"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBackendBenchmark {
+
+  private static final String DATABASE = "qeats-search-benchmark";
+  private static final List<String> WORDS = Arrays.asList("spicy", "biryani", "house", "pizza",
+      "corner", "dosa", "kitchen", "grill", "cafe", "noodle", "tandoor", "bakery", "express",
+      "garden", "paradise", "palace", "curry", "burger", "sweets", "dhaba");
+  private static final List<String> CUISINES = Arrays.asList("Indian", "Chinese", "Italian",
+      "Mexican", "Thai", "Continental", "Desserts", "Fast Food", "South Indian", "Mughlai");
+
+  @Param({"10000", "100000"})
+  private int restaurants;
+
+  @Param({"biryani", "indian"})
+  private String searchFor;
+
+  private MongoClient mongoClient;
+  private MongoTemplate mongoTemplate;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    mongoClient = new MongoClient(new MongoClientURI(
+        System.getProperty("qeats.benchmark.mongodb.uri", "mongodb://localhost:27017")));
+    mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+    mongoTemplate.dropCollection(RestaurantEntity.class);
+
+    Random random = new Random(42);
+    List<RestaurantEntity> batch = new ArrayList<>();
+    for (int i = 0; i < restaurants; i++) {
+      RestaurantEntity restaurantEntity = new RestaurantEntity();
+      restaurantEntity.setRestaurantId(Integer.toString(i));
+      restaurantEntity.setName(word(random) + " " + word(random) + " " + word(random));
+      restaurantEntity.setAttributes(Arrays.asList(cuisine(random), cuisine(random)));
+      restaurantEntity.setKeywords(
+          SearchKeywords.of(restaurantEntity.getName(), restaurantEntity.getAttributes()));
+      batch.add(restaurantEntity);
+      if (batch.size() == 1000) {
+        mongoTemplate.insert(batch, RestaurantEntity.class);
+        batch.clear();
+      }
+    }
+    mongoTemplate.insert(batch, RestaurantEntity.class);
+    SearchKeywordsIndex.ensureIndexes(mongoTemplate);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    mongoClient.dropDatabase(DATABASE);
+    mongoClient.close();
+  }
+
+  // Same query as RestaurantRepository#findRestaurantsByName.
+  @Benchmark
+  public List<RestaurantEntity> regexName() {
+    Query query = new Query(Criteria.where("name")
+        .regex(Pattern.compile(".*" + Pattern.quote(searchFor) + ".*", Pattern.CASE_INSENSITIVE)));
+    return mongoTemplate.find(query, RestaurantEntity.class);
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> keywordsName() {
+    return mongoTemplate.find(SearchKeywordsIndex.matching(SearchKeywords.NAME, searchFor),
+        RestaurantEntity.class);
+  }
+
+  // Same query as RestaurantRepositoryServiceImpl#findRestaurantsByAttributes.
+  @Benchmark
+  public List<RestaurantEntity> regexAttributes() {
+    Query query = new Query();
+    for (String token : searchFor.split(" ")) {
+      query.addCriteria(Criteria.where("attributes")
+          .regex(Pattern.compile(Pattern.quote(token), Pattern.CASE_INSENSITIVE)));
+    }
+    return mongoTemplate.find(query, RestaurantEntity.class);
+  }
+
+  @Benchmark
+  public List<RestaurantEntity> keywordsAttributes() {
+    return mongoTemplate.find(SearchKeywordsIndex.matching(SearchKeywords.ATTRIBUTES, searchFor),
+        RestaurantEntity.class);
+  }
+
+  private static String word(Random random) {
+    return WORDS.get(random.nextInt(WORDS.size()));
+  }
+
+  private static String cuisine(Random random) {
+    return CUISINES.get(random.nextInt(CUISINES.size()));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of mapping a response of {@code restaurants} restaurant entities to DTOs:
+ *   - modelMapperPerResponse: a fresh ModelMapper per response, as the prototype bean did.
+ *   - modelMapperShared: one ModelMapper whose type map is already built.
+ *   - entityMapper: {@link EntityMapper}.
+ * Add {@code -prof gc} for the bytes allocated per response (gc.alloc.rate.norm).
+ *
+ * <p>./gradlew :qeatsbackend:jmh -PjmhArgs="EntityMapperBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMapperBenchmark {
+
+  @Param({"1", "500"})
+  private int restaurants;
+
+  private List<RestaurantEntity> restaurantEntities;
+  private ModelMapper sharedModelMapper;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    restaurantEntities = new ArrayList<>();
+    for (int i = 0; i < restaurants; i++) {
+      RestaurantEntity restaurantEntity = new RestaurantEntity();
+      restaurantEntity.setId("5c9a1b" + i);
+      restaurantEntity.setRestaurantId(Integer.toString(i));
+      restaurantEntity.setName("Restaurant " + i);
+      restaurantEntity.setCity("Bengaluru");
+      restaurantEntity.setImageUrl("https://images.qeats.example/" + i + ".jpg");
+      restaurantEntity.setLatitude(12.9 + i * 1e-4);
+      restaurantEntity.setLongitude(77.6 + i * 1e-4);
+      restaurantEntity.setOpensAt("10:00");
+      restaurantEntity.setClosesAt("23:00");
+      restaurantEntity.setAttributes(Arrays.asList("North Indian", "Chinese", "Desserts"));
+      restaurantEntities.add(restaurantEntity);
+    }
+    sharedModelMapper = new ModelMapper();
+    sharedModelMapper.map(restaurantEntities.get(0), Restaurant.class);
+  }
+
+  @Benchmark
+  public List<Restaurant> modelMapperPerResponse() {
+    return map(new ModelMapper());
+  }
+
+  @Benchmark
+  public List<Restaurant> modelMapperShared() {
+    return map(sharedModelMapper);
+  }
+
+  @Benchmark
+  public List<Restaurant> entityMapper() {
+    List<Restaurant> response = new ArrayList<>(restaurantEntities.size());
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      response.add(EntityMapper.toRestaurant(restaurantEntity));
+    }
+    return response;
+  }
+
+  private List<Restaurant> map(ModelMapper modelMapper) {
+    List<Restaurant> response = new ArrayList<>(restaurantEntities.size());
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      response.add(modelMapper.map(restaurantEntity, Restaurant.class));
+    }
+    return response;
+  }
+}
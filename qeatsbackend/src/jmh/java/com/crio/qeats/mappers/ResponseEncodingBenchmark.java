@@ -0,0 +1,91 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Server side cost of encoding a response of {@code restaurants} restaurants:
+ *   - jackson: the application/json body.
+ *   - protobuf: mapping with {@link ProtoMapper} and writing the application/x-protobuf body.
+ * The size of both bodies is reported as their encodedBytes secondary result.
+ *
+ * <p>./gradlew :qeatsbackend:jmh -PjmhArgs="ResponseEncodingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+  /**
+   * Bytes of the body just written, so the sizes show up in the results next to the times.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+    public long encodedBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      encodedBytes = 0;
+    }
+  }
+
+  @Param({"10", "500"})
+  private int restaurants;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private GetRestaurantsResponse getRestaurantsResponse;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    List<Restaurant> restaurantList = new ArrayList<>();
+    for (int i = 0; i < restaurants; i++) {
+      restaurantList.add(new Restaurant(Integer.toString(i), "Restaurant " + i, "Bengaluru",
+          "https://images.qeats.example/" + i + ".jpg", 12.9 + i * 1e-4, 77.6 + i * 1e-4,
+          "10:00", "23:00", Arrays.asList("North Indian", "Chinese", "Desserts")));
+    }
+    getRestaurantsResponse = new GetRestaurantsResponse(restaurantList);
+  }
+
+  @Benchmark
+  public byte[] jackson(EncodedSize encodedSize) throws JsonProcessingException {
+    byte[] body = objectMapper.writeValueAsBytes(getRestaurantsResponse);
+    encodedSize.encodedBytes = body.length;
+    return body;
+  }
+
+  @Benchmark
+  public byte[] protobuf(EncodedSize encodedSize) {
+    byte[] body = ProtoMapper.toProto(getRestaurantsResponse);
+    encodedSize.encodedBytes = body.length;
+    return body;
+  }
+}
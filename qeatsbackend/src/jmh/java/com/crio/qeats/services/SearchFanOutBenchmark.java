@@ -0,0 +1,146 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.services;
+
+import com.crio.qeats.configs.SearchExecutorConfiguration;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsRequest;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.repositoryservices.RestaurantRepositoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Field;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the sequential and the concurrent search over four sources that each take
+ * {@code sourceLatencyMillis} to answer, standing in for the repository queries.
+ * The concurrent search is expected to be at least 1.5x faster.
+ *
+ * <p>./gradlew :qeatsbackend:jmh -PjmhArgs="SearchFanOutBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchFanOutBenchmark {
+
+  @Param({"2", "10"})
+  private long sourceLatencyMillis;
+
+  private ExecutorService searchExecutor;
+  private RestaurantServiceImpl restaurantService;
+  private GetRestaurantsRequest request;
+  private LocalTime currentTime;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    searchExecutor = SearchExecutorConfiguration.newSearchExecutor(32, 1000);
+    restaurantService = new RestaurantServiceImpl();
+    inject("restaurantRepositoryService", new SlowRestaurantRepositoryService(sourceLatencyMillis));
+    inject("searchExecutor", searchExecutor);
+    inject("meterRegistry", new SimpleMeterRegistry());
+    request = new GetRestaurantsRequest(20.0, 30.0);
+    request.setSearchFor("biryani");
+    currentTime = LocalTime.of(15, 0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    searchExecutor.shutdown();
+  }
+
+  @Benchmark
+  public GetRestaurantsResponse sequential() {
+    return restaurantService.findRestaurantsBySearchQuery(request, currentTime);
+  }
+
+  @Benchmark
+  public GetRestaurantsResponse concurrent() {
+    return restaurantService.findRestaurantsBySearchQueryMt(request, currentTime);
+  }
+
+  private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+    Field field = RestaurantServiceImpl.class.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(restaurantService, value);
+  }
+
+  private static class SlowRestaurantRepositoryService implements RestaurantRepositoryService {
+
+    private final long latencyMillis;
+
+    SlowRestaurantRepositoryService(long latencyMillis) {
+      this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public List<Restaurant> findAllRestaurantsCloseBy(Double latitude, Double longitude,
+        LocalTime currentTime, Double servingRadiusInKms) {
+      return answer(latitude, longitude, "closeby");
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByName(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return answer(latitude, longitude, "name");
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByAttributes(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return answer(latitude, longitude, "attributes");
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByItemName(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return answer(latitude, longitude, "itemName");
+    }
+
+    @Override
+    public List<Restaurant> findRestaurantsByItemAttributes(Double latitude, Double longitude,
+        String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+      return answer(latitude, longitude, "itemAttributes");
+    }
+
+    private List<Restaurant> answer(Double latitude, Double longitude, String source) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      List<Restaurant> restaurants = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantId(source + i);
+        restaurant.setLatitude(latitude);
+        restaurant.setLongitude(longitude);
+        restaurants.add(restaurant);
+      }
+      return restaurants;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.io.IOException;
+
+/**
+ * Turns cached values into the bytes stored in Redis and back.
+ * Implementations must be thread safe, a single instance is shared by all requests.
+ */
+public interface CacheCodec<T> {
+
+  byte[] encode(T value) throws IOException;
+
+  T decode(byte[] bytes) throws IOException;
+
+}
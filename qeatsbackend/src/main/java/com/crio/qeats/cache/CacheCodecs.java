@@ -0,0 +1,44 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Builds the cache codecs selectable through configuration.
+ */
+public class CacheCodecs {
+
+  public static final String JSON = "json";
+  public static final String SMILE = "smile";
+
+  private CacheCodecs() { /* static factory */ }
+
+  /**
+   * Get the codec for the given format, optionally compressed.
+   * @param format {@link #JSON} or {@link #SMILE}
+   * @param type type of the cached values
+   * @param compressionThresholdInBytes encoded values at least this large are LZ4 compressed,
+   *     a negative value disables compression
+   * @return codec
+   * @throws IllegalArgumentException for an unknown format
+   */
+  public static <T> CacheCodec<T> forFormat(String format, Class<T> type,
+      int compressionThresholdInBytes) {
+    CacheCodec<T> codec;
+    if (JSON.equalsIgnoreCase(format)) {
+      codec = new JacksonCacheCodec<>(new ObjectMapper(), type);
+    } else if (SMILE.equalsIgnoreCase(format)) {
+      codec = new JacksonCacheCodec<>(new ObjectMapper(new SmileFactory()), type);
+    } else {
+      throw new IllegalArgumentException("Unknown cache codec " + format);
+    }
+    return compressionThresholdInBytes < 0
+        ? codec : new Lz4CacheCodec<>(codec, compressionThresholdInBytes);
+  }
+}
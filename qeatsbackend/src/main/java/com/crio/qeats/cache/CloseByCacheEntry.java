@@ -0,0 +1,39 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cached restaurants of one serving cell and time window, hydrated from RestaurantCatalog.
+@Data
+@NoArgsConstructor
+public class CloseByCacheEntry {
+
+  // Wall clock time (epoch millis) after which the entry is stale and gets refreshed.
+  private long softExpiresAtMillis;
+
+  // Wall clock time (epoch millis) after which the entry must no longer be served at all.
+  private long hardExpiresAtMillis;
+
+  // How long it took to compute the entry, drives probabilistic early refresh.
+  private long loadMillis;
+
+  private List<String> restaurantIds = new ArrayList<>();
+
+  public CloseByCacheEntry(long softExpiresAtMillis, List<String> restaurantIds) {
+    this.softExpiresAtMillis = softExpiresAtMillis;
+    this.hardExpiresAtMillis = softExpiresAtMillis;
+    this.restaurantIds = restaurantIds;
+  }
+
+  public long millisToLive() {
+    return hardExpiresAtMillis - System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.configs.RedisClient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two tier cache of close-by restaurant lists.
+ *   - L1: bounded in-process Caffeine cache (W-TinyLFU admission, so hot cells stay resident).
+ *   - L2: Redis, shared by every node.
+ * An L1 entry lives until the entry itself expires or for at most {@code max-ttl-ms}, so that
+ * a node picks up entries rewritten by other nodes reasonably quickly.
+ * Misses are coalesced per key, within the node always and across nodes through a short lived
+ * Redis lock when {@code qeats.closeby-cache.distributed-lock.enabled} is set.
+ *
+ * <p>Entries are stale-while-revalidate: past their soft expiry (or a little before it, picked
+ * at random with probabilistic early expiration) they are still served for up to
+ * {@code stale-grace-ms}, while a single background refresh of the key recomputes them on a
+ * dedicated executor. Only a request arriving after the hard expiry pays for the load. The
+ * refresh is handed the entry it replaces, so it can compute what follows that entry's soft
+ * expiry rather than the same entry again.
+ *
+ * <p>While the Redis circuit breaker is open (see {@link RedisClient}) Redis is skipped, and
+ * {@code qeats.closeby-cache.degraded-mode} picks what happens instead:
+ *   - local: L1 alone carries the load, its entries live until their own hard expiry.
+ *   - mongo: every request is answered from the data source, nothing is cached.
+ */
+@Component
+@Log4j2
+public class CloseByRestaurantCache {
+
+  static final String METRIC_PREFIX = "qeats.cache.closeby";
+  static final String DEGRADED_MODE_LOCAL = "local";
+  static final String DEGRADED_MODE_MONGO = "mongo";
+
+  private static final String LOCK_KEY_PREFIX = "lock:";
+  // Deletes the lock only if we still own it, so we never release a lock taken over by another
+  // node after ours expired.
+  private static final String RELEASE_LOCK_SCRIPT =
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+      + "else return 0 end";
+
+  @Autowired
+  private RedisClient redisClient;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${qeats.closeby-cache.local.maximum-size:10000}")
+  private long localMaximumSize;
+
+  @Value("${qeats.closeby-cache.local.max-ttl-ms:60000}")
+  private long localMaxTtlInMillis;
+
+  @Value("${qeats.closeby-cache.distributed-lock.enabled:false}")
+  private boolean distributedLockEnabled;
+
+  @Value("${qeats.closeby-cache.distributed-lock.ttl-ms:5000}")
+  private long lockTtlInMillis;
+
+  @Value("${qeats.closeby-cache.distributed-lock.wait-ms:2000}")
+  private long lockWaitInMillis;
+
+  @Value("${qeats.closeby-cache.distributed-lock.poll-interval-ms:50}")
+  private long lockPollIntervalInMillis;
+
+  @Value("${qeats.closeby-cache.codec:smile}")
+  private String codecFormat;
+
+  // Negative disables compression.
+  @Value("${qeats.closeby-cache.compression-threshold-bytes:1024}")
+  private int compressionThresholdInBytes;
+
+  @Value("${qeats.closeby-cache.stale-grace-ms:60000}")
+  private long staleGraceInMillis;
+
+  // Larger values refresh earlier, 0 disables early refresh.
+  @Value("${qeats.closeby-cache.refresh.beta:1.0}")
+  private double refreshBeta;
+
+  @Value("${qeats.closeby-cache.refresh.threads:2}")
+  private int refreshThreads;
+
+  @Value("${qeats.closeby-cache.refresh.queue-capacity:1000}")
+  private int refreshQueueCapacity;
+
+  @Value("${qeats.closeby-cache.degraded-mode:" + DEGRADED_MODE_LOCAL + "}")
+  private String degradedMode;
+
+  private final SingleFlight<String, CloseByCacheEntry> singleFlight = new SingleFlight<>();
+  private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+  // Uniform random numbers in (0, 1] for early expiration, replaced by tests to pin the draw.
+  DoubleSupplier random = () -> 1.0 - ThreadLocalRandom.current().nextDouble();
+
+  private CacheCodec<CloseByCacheEntry> codec;
+  private Cache<String, CloseByCacheEntry> localCache;
+  private ThreadPoolExecutor refreshExecutor;
+  private Counter remoteHits;
+  private Counter remoteMisses;
+  private Counter refreshesRejected;
+  private Counter degradedLoads;
+  private Timer refreshLatency;
+
+  @PostConstruct
+  public void init() {
+    codec = CacheCodecs.forFormat(codecFormat, CloseByCacheEntry.class,
+        compressionThresholdInBytes);
+    localCache = Caffeine.newBuilder()
+        .maximumSize(localMaximumSize)
+        .expireAfter(new LocalExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, localCache, METRIC_PREFIX + ".local");
+    remoteHits = meterRegistry.counter(METRIC_PREFIX + ".remote", "result", "hit");
+    remoteMisses = meterRegistry.counter(METRIC_PREFIX + ".remote", "result", "miss");
+    meterRegistry.gauge(METRIC_PREFIX + ".loads.inflight", singleFlight,
+        SingleFlight::inFlightCount);
+
+    refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads,
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(refreshQueueCapacity),
+        new ThreadFactoryBuilder().setNameFormat("closeby-refresh-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy());
+    meterRegistry.gauge(METRIC_PREFIX + ".refresh.queue", refreshExecutor,
+        executor -> executor.getQueue().size());
+    refreshesRejected = meterRegistry.counter(METRIC_PREFIX + ".refresh.rejected");
+    refreshLatency = meterRegistry.timer(METRIC_PREFIX + ".refresh.latency");
+    degradedLoads = meterRegistry.counter(METRIC_PREFIX + ".degraded.loads");
+
+    if (!DEGRADED_MODE_LOCAL.equals(degradedMode) && !DEGRADED_MODE_MONGO.equals(degradedMode)) {
+      throw new IllegalArgumentException("Unknown close-by cache degraded mode: " + degradedMode);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    refreshExecutor.shutdownNow();
+  }
+
+  /**
+   * Computes the entry of a key from the data source.
+   */
+  @FunctionalInterface
+  public interface Loader {
+
+    /**
+     * Computes the entry of the key, as of the time it is called.
+     * @param staleEntry entry being refreshed in the background, null on a miss
+     * @return entry to cache; its hard expiry is set by the cache
+     */
+    CloseByCacheEntry load(CloseByCacheEntry staleEntry);
+  }
+
+  /**
+   * Get the entry for the key, loading and caching it on a miss.
+   * Concurrent misses for the same key run {@code loader} once and share its result.
+   * @param key cache key of the serving cell
+   * @param loader computes the entry from the data source
+   * @return cached or freshly loaded entry
+   */
+  public CloseByCacheEntry get(String key, Loader loader) {
+    if (DEGRADED_MODE_MONGO.equals(degradedMode) && !redisClient.isAvailable()) {
+      degradedLoads.increment();
+      return singleFlight.load(key, () -> loader.load(null));
+    }
+
+    CloseByCacheEntry entry = get(key);
+    if (entry != null) {
+      if (shouldRefresh(entry)) {
+        scheduleRefresh(key, loader, entry);
+      }
+      return entry;
+    }
+    return singleFlight.load(key, () -> {
+      // Another caller may have filled the cache between our miss and winning the flight.
+      CloseByCacheEntry loaded = get(key);
+      return loaded != null ? loaded : load(key, loader, null);
+    });
+  }
+
+  /**
+   * Get the entry from L1, or else from Redis (populating L1 on the way).
+   * @param key cache key of the serving cell
+   * @return the cached entry or null if neither tier has a live one
+   */
+  public CloseByCacheEntry get(String key) {
+    CloseByCacheEntry entry = localCache.getIfPresent(key);
+    if (entry != null) {
+      return entry;
+    }
+    if (!redisClient.isAvailable()) {
+      return null;
+    }
+
+    entry = getFromRedis(key);
+    if (entry == null || entry.millisToLive() <= 0) {
+      remoteMisses.increment();
+      return null;
+    }
+    remoteHits.increment();
+    localCache.put(key, entry);
+    return entry;
+  }
+
+  /**
+   * Stores the entry in both tiers, to expire at its hard expiry.
+   */
+  public void put(String key, CloseByCacheEntry entry) {
+    long millisToLive = entry.millisToLive();
+    if (millisToLive <= 0) {
+      return;
+    }
+    localCache.put(key, entry);
+    if (!redisClient.isAvailable()) {
+      return;
+    }
+    try {
+      byte[] value = codec.encode(entry);
+      redisClient.execute("closeby.put",
+          jedis -> jedis.psetex(key.getBytes(StandardCharsets.UTF_8), millisToLive, value));
+    } catch (Exception e) {
+      log.warn("Unable to write {} to redis", key, e);
+    }
+  }
+
+  /**
+   * Get how long past its soft expiry an entry may still be served, the loader must cover that
+   * time too.
+   */
+  public long getStaleGraceInMillis() {
+    return staleGraceInMillis;
+  }
+
+  public CacheStats getLocalStats() {
+    return localCache.stats();
+  }
+
+  public void invalidateLocal() {
+    localCache.invalidateAll();
+  }
+
+  /**
+   * Probabilistic early expiration (XFetch): refreshes when
+   * {@code now - loadMillis * beta * ln(random) >= softExpiry}, so the closer the soft expiry
+   * and the longer the entry took to compute, the likelier a request is to trigger its refresh.
+   * Past the soft expiry it always does.
+   */
+  boolean shouldRefresh(CloseByCacheEntry entry) {
+    return System.currentTimeMillis()
+        - entry.getLoadMillis() * refreshBeta * Math.log(random.getAsDouble())
+        >= entry.getSoftExpiresAtMillis();
+  }
+
+  private void scheduleRefresh(String key, Loader loader, CloseByCacheEntry staleEntry) {
+    if (!refreshingKeys.add(key)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          refreshLatency.record(() -> {
+            singleFlight.load(key, () -> load(key, loader, staleEntry));
+          });
+        } catch (RuntimeException e) {
+          log.warn("Unable to refresh {}", key, e);
+        } finally {
+          refreshingKeys.remove(key);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // The stale entry is still served; the refresh will be asked for again by a later request.
+      refreshingKeys.remove(key);
+      refreshesRejected.increment();
+    }
+  }
+
+  private CloseByCacheEntry load(String key, Loader loader, CloseByCacheEntry staleEntry) {
+    if (!redisClient.isAvailable()) {
+      degradedLoads.increment();
+      return loadAndPut(key, loader, staleEntry);
+    }
+    return distributedLockEnabled
+        ? loadUnderLock(key, loader, staleEntry) : loadAndPut(key, loader, staleEntry);
+  }
+
+  /**
+   * Loads the entry while holding the Redis lock of the key, so that only one node computes it.
+   * Nodes that don't get the lock wait for the owner to publish the entry, and compute it
+   * themselves if that doesn't happen within {@code wait-ms}.
+   */
+  private CloseByCacheEntry loadUnderLock(String key, Loader loader,
+      CloseByCacheEntry staleEntry) {
+    String lockKey = LOCK_KEY_PREFIX + key;
+    String token = UUID.randomUUID().toString();
+    if (tryLock(lockKey, token)) {
+      try {
+        return loadAndPut(key, loader, staleEntry);
+      } finally {
+        unlock(lockKey, token);
+      }
+    }
+
+    long deadline = System.currentTimeMillis() + lockWaitInMillis;
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        Thread.sleep(lockPollIntervalInMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      CloseByCacheEntry entry = getFromRedis(key);
+      if (entry != null && entry.millisToLive() > 0) {
+        localCache.put(key, entry);
+        return entry;
+      }
+    }
+    return loadAndPut(key, loader, staleEntry);
+  }
+
+  private CloseByCacheEntry loadAndPut(String key, Loader loader,
+      CloseByCacheEntry staleEntry) {
+    long startTime = System.currentTimeMillis();
+    CloseByCacheEntry entry = loader.load(staleEntry);
+    entry.setLoadMillis(System.currentTimeMillis() - startTime);
+    entry.setHardExpiresAtMillis(entry.getSoftExpiresAtMillis() + staleGraceInMillis);
+    put(key, entry);
+    return entry;
+  }
+
+  private boolean tryLock(String lockKey, String token) {
+    try {
+      return "OK".equals(redisClient.execute("closeby.lock",
+          jedis -> jedis.set(lockKey, token, "NX", "PX", lockTtlInMillis)));
+    } catch (Exception e) {
+      // Without Redis there is nobody to coordinate with, just load.
+      log.warn("Unable to take lock {}", lockKey, e);
+      return true;
+    }
+  }
+
+  private void unlock(String lockKey, String token) {
+    try {
+      redisClient.execute("closeby.unlock", jedis -> jedis.eval(RELEASE_LOCK_SCRIPT,
+          Collections.singletonList(lockKey), Collections.singletonList(token)));
+    } catch (Exception e) {
+      log.warn("Unable to release lock {}", lockKey, e);
+    }
+  }
+
+  private CloseByCacheEntry getFromRedis(String key) {
+    try {
+      byte[] value = redisClient.execute("closeby.get",
+          jedis -> jedis.get(key.getBytes(StandardCharsets.UTF_8)));
+      return value == null ? null : codec.decode(value);
+    } catch (Exception e) {
+      log.warn("Unable to read {} from redis", key, e);
+      return null;
+    }
+  }
+
+  private class LocalExpiry implements Expiry<String, CloseByCacheEntry> {
+
+    @Override
+    public long expireAfterCreate(String key, CloseByCacheEntry entry, long currentTime) {
+      // With Redis down there are no rewrites by other nodes to pick up.
+      long maxTtlInMillis = redisClient.isAvailable() ? localMaxTtlInMillis : Long.MAX_VALUE;
+      long millisToLive = Math.max(0, Math.min(maxTtlInMillis, entry.millisToLive()));
+      return TimeUnit.MILLISECONDS.toNanos(millisToLive);
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, CloseByCacheEntry entry, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(key, entry, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, CloseByCacheEntry entry, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.configs.PreparedResponseConverter;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gzipped bodies of prepared restaurant responses, keyed by their ETag.
+ * Clients in the same serving cell and time window get the same restaurants, so a response is
+ * compressed once and then served to all of them. An ETag identifies the bytes of the body,
+ * so entries never need invalidating, only evicting by size.
+ */
+@Component
+public class CompressedResponseCache {
+
+  @Value("${qeats.closeby.gzip.cache-maximum-bytes:67108864}")
+  private long maximumBytes;
+
+  private Cache<String, byte[]> gzipByEtag;
+
+  @PostConstruct
+  public void init() {
+    gzipByEtag = Caffeine.newBuilder()
+        .maximumWeight(maximumBytes)
+        .weigher((String etag, byte[] gzip) -> gzip.length)
+        .build();
+  }
+
+  public byte[] getGzip(PreparedRestaurantsResponse response) {
+    return gzipByEtag.get(response.getEtag(), etag -> gzip(response));
+  }
+
+  static byte[] gzip(PreparedRestaurantsResponse response) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+        (int) Math.min(Integer.MAX_VALUE, PreparedResponseConverter.contentLength(response) / 4));
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      PreparedResponseConverter.writeTo(response, gzip);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+
+/**
+ * Codec backed by a Jackson data format (JSON, Smile, ...).
+ * The reader and writer are resolved for the type once and reused for every call.
+ */
+public class JacksonCacheCodec<T> implements CacheCodec<T> {
+
+  private final ObjectReader reader;
+  private final ObjectWriter writer;
+
+  public JacksonCacheCodec(ObjectMapper objectMapper, Class<T> type) {
+    this.reader = objectMapper.readerFor(type);
+    this.writer = objectMapper.writerFor(type);
+  }
+
+  @Override
+  public byte[] encode(T value) throws IOException {
+    return writer.writeValueAsBytes(value);
+  }
+
+  @Override
+  public T decode(byte[] bytes) throws IOException {
+    return reader.readValue(bytes);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Wraps another codec and LZ4 compresses its output when it is larger than a threshold.
+ * Layout: one flag byte, then either the raw bytes or the original length followed by the
+ * compressed bytes.
+ */
+public class Lz4CacheCodec<T> implements CacheCodec<T> {
+
+  private static final byte RAW = 0;
+  private static final byte LZ4 = 1;
+
+  private final CacheCodec<T> delegate;
+  private final int thresholdInBytes;
+  private final LZ4Compressor compressor;
+  private final LZ4FastDecompressor decompressor;
+
+  public Lz4CacheCodec(CacheCodec<T> delegate, int thresholdInBytes) {
+    LZ4Factory factory = LZ4Factory.fastestInstance();
+    this.delegate = delegate;
+    this.thresholdInBytes = thresholdInBytes;
+    this.compressor = factory.fastCompressor();
+    this.decompressor = factory.fastDecompressor();
+  }
+
+  @Override
+  public byte[] encode(T value) throws IOException {
+    byte[] raw = delegate.encode(value);
+    if (raw.length < thresholdInBytes) {
+      return ByteBuffer.allocate(1 + raw.length).put(RAW).put(raw).array();
+    }
+    byte[] compressed = new byte[compressor.maxCompressedLength(raw.length)];
+    int compressedLength = compressor.compress(raw, 0, raw.length, compressed, 0);
+    return ByteBuffer.allocate(1 + 4 + compressedLength)
+        .put(LZ4).putInt(raw.length).put(compressed, 0, compressedLength).array();
+  }
+
+  @Override
+  public T decode(byte[] bytes) throws IOException {
+    if (bytes.length == 0) {
+      throw new IOException("Empty cache value");
+    }
+    if (bytes[0] == RAW) {
+      byte[] raw = new byte[bytes.length - 1];
+      System.arraycopy(bytes, 1, raw, 0, raw.length);
+      return delegate.decode(raw);
+    }
+    if (bytes[0] != LZ4 || bytes.length < 5) {
+      throw new IOException("Unknown cache value format " + bytes[0]);
+    }
+    int rawLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+    byte[] raw = new byte[rawLength];
+    decompressor.decompress(bytes, 5, raw, 0, rawLength);
+    return delegate.decode(raw);
+  }
+}
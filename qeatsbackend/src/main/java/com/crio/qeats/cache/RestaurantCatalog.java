@@ -0,0 +1,246 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.configs.RedisClient;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.mappers.EntityMapper;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+/**
+ * Single copy of every cached {@link Restaurant}, shared by all close-by cache entries.
+ * Cell entries only hold restaurant ids and are hydrated from here, so updating or evicting a
+ * restaurant touches one record rather than every cell it appears in.
+ *   - Local tier: in-process map, per node.
+ *   - Shared tier: one Redis key per restaurant, so other nodes can hydrate entries they did
+ *     not compute. Each key expires on its own, {@code REDIS_ENTRY_EXPIRY_IN_SECONDS} after
+ *     the restaurant was last written.
+ *   - Restaurants found in neither are read from Mongo. Ids Mongo doesn't have either are
+ *     remembered for {@code negative-ttl-ms}, so they don't cost a query on every request.
+ */
+@Component
+@Log4j2
+public class RestaurantCatalog {
+
+  // Versioned with the Restaurant format, v2: names in display form, v3: one key per restaurant.
+  static final String REDIS_KEY_PREFIX = "restaurants:catalog:v3:";
+  private static final int EVICT_ALL_BATCH_SIZE = 1000;
+
+  @Autowired
+  private RedisClient redisClient;
+
+  @Autowired
+  private RestaurantRepository restaurantRepository;
+
+  @Value("${qeats.restaurant-catalog.local.maximum-size:200000}")
+  private long localMaximumSize;
+
+  // Bounds how long an out-of-band change (eg. mongorestore) can go unnoticed.
+  @Value("${qeats.restaurant-catalog.local.ttl-ms:600000}")
+  private long localTtlInMillis;
+
+  @Value("${qeats.restaurant-catalog.negative-ttl-ms:60000}")
+  private long negativeTtlInMillis;
+
+  @Value("${qeats.closeby-cache.codec:smile}")
+  private String codecFormat;
+
+  private CacheCodec<Restaurant> codec;
+  private Cache<String, Restaurant> localCatalog;
+  // restaurantIds found nowhere, not looked up again until they expire or are put.
+  private Cache<String, Boolean> missingRestaurantIds;
+  // Mongo document id -> restaurantId, delete events only carry the former.
+  private final Map<String, String> restaurantIdByDocumentId = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    codec = CacheCodecs.forFormat(codecFormat, Restaurant.class, -1);
+    localCatalog = Caffeine.newBuilder()
+        .maximumSize(localMaximumSize)
+        .expireAfterWrite(localTtlInMillis, TimeUnit.MILLISECONDS)
+        .build();
+    missingRestaurantIds = Caffeine.newBuilder()
+        .maximumSize(localMaximumSize)
+        .expireAfterWrite(negativeTtlInMillis, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  static byte[] redisKey(String restaurantId) {
+    return (REDIS_KEY_PREFIX + restaurantId).getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Adds or replaces the given restaurants in both tiers.
+   * @param restaurantEntities restaurants as read from Mongo
+   */
+  public void putAll(Collection<RestaurantEntity> restaurantEntities) {
+    if (restaurantEntities.isEmpty()) {
+      return;
+    }
+    Map<byte[], byte[]> encoded = new HashMap<>();
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      Restaurant restaurant = EntityMapper.toRestaurant(restaurantEntity);
+      localCatalog.put(restaurant.getRestaurantId(), restaurant);
+      missingRestaurantIds.invalidate(restaurant.getRestaurantId());
+      if (restaurantEntity.getId() != null) {
+        restaurantIdByDocumentId.put(restaurantEntity.getId(), restaurant.getRestaurantId());
+      }
+      try {
+        encoded.put(redisKey(restaurant.getRestaurantId()), codec.encode(restaurant));
+      } catch (Exception e) {
+        log.warn("Unable to encode restaurant {}", restaurant.getRestaurantId(), e);
+      }
+    }
+    if (!redisClient.isAvailable()) {
+      return;
+    }
+    try {
+      redisClient.execute("catalog.put", jedis -> {
+        Pipeline pipeline = jedis.pipelined();
+        for (Map.Entry<byte[], byte[]> entry : encoded.entrySet()) {
+          pipeline.setex(entry.getKey(), GlobalConstants.REDIS_ENTRY_EXPIRY_IN_SECONDS,
+              entry.getValue());
+        }
+        pipeline.sync();
+        return null;
+      });
+    } catch (Exception e) {
+      log.warn("Unable to write restaurants to the redis catalog", e);
+    }
+  }
+
+  /**
+   * Get the restaurants with the given ids, in the same order.
+   * Ids that can't be found anywhere (eg. deleted restaurants) are skipped.
+   */
+  public List<Restaurant> getAll(List<String> restaurantIds) {
+    Map<String, Restaurant> found = new HashMap<>(localCatalog.getAllPresent(restaurantIds));
+    if (found.size() < restaurantIds.size()) {
+      List<String> missing = missingIds(restaurantIds, found);
+      missing.removeAll(missingRestaurantIds.getAllPresent(missing).keySet());
+      if (!missing.isEmpty()) {
+        found.putAll(getAllFromRedis(missing));
+        missing = missingIds(missing, found);
+      }
+      if (!missing.isEmpty()) {
+        List<RestaurantEntity> restaurantEntities = restaurantRepository
+            .findRestaurantsByRestaurantIdIn(missing).orElseGet(ArrayList::new);
+        putAll(restaurantEntities);
+        found.putAll(localCatalog.getAllPresent(missing));
+        for (String restaurantId : missingIds(missing, found)) {
+          missingRestaurantIds.put(restaurantId, Boolean.TRUE);
+        }
+      }
+    }
+
+    List<Restaurant> restaurants = new ArrayList<>(restaurantIds.size());
+    for (String restaurantId : restaurantIds) {
+      Restaurant restaurant = found.get(restaurantId);
+      if (restaurant != null) {
+        restaurants.add(restaurant);
+      }
+    }
+    return restaurants;
+  }
+
+  /**
+   * Drops the restaurant stored under the given Mongo document id from both tiers.
+   */
+  public void evictByDocumentId(String documentId) {
+    String restaurantId = restaurantIdByDocumentId.remove(documentId);
+    if (restaurantId == null) {
+      return;
+    }
+    localCatalog.invalidate(restaurantId);
+    try {
+      redisClient.execute("catalog.evict", jedis -> jedis.del(redisKey(restaurantId)));
+    } catch (Exception e) {
+      log.warn("Unable to evict restaurant {} from the redis catalog", restaurantId, e);
+    }
+  }
+
+  /**
+   * Drops every restaurant from both tiers.
+   */
+  public void evictAll() {
+    localCatalog.invalidateAll();
+    missingRestaurantIds.invalidateAll();
+    restaurantIdByDocumentId.clear();
+    try {
+      redisClient.execute("catalog.evictAll", jedis -> {
+        ScanParams scanParams =
+            new ScanParams().match(REDIS_KEY_PREFIX + "*").count(EVICT_ALL_BATCH_SIZE);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+          ScanResult<String> keys = jedis.scan(cursor, scanParams);
+          if (!keys.getResult().isEmpty()) {
+            jedis.del(keys.getResult().toArray(new String[0]));
+          }
+          cursor = keys.getStringCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        return null;
+      });
+    } catch (Exception e) {
+      log.warn("Unable to clear the redis catalog", e);
+    }
+  }
+
+  private Map<String, Restaurant> getAllFromRedis(List<String> restaurantIds) {
+    Map<String, Restaurant> restaurants = new HashMap<>();
+    if (!redisClient.isAvailable()) {
+      return restaurants;
+    }
+    byte[][] keys = new byte[restaurantIds.size()][];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = redisKey(restaurantIds.get(i));
+    }
+    try {
+      List<byte[]> values = redisClient.execute("catalog.get", jedis -> jedis.mget(keys));
+      for (byte[] value : values) {
+        if (value != null) {
+          Restaurant restaurant = codec.decode(value);
+          localCatalog.put(restaurant.getRestaurantId(), restaurant);
+          restaurants.put(restaurant.getRestaurantId(), restaurant);
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Unable to read restaurants from the redis catalog", e);
+    }
+    return restaurants;
+  }
+
+  private static List<String> missingIds(List<String> restaurantIds,
+      Map<String, Restaurant> found) {
+    List<String> missing = new ArrayList<>();
+    for (String restaurantId : restaurantIds) {
+      if (!found.containsKey(restaurantId)) {
+        missing.add(restaurantId);
+      }
+    }
+    return missing;
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.google.common.hash.HashCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// JSON of one restaurant as the API returns it, and a hash of those bytes to build ETags from.
+@Data
+@AllArgsConstructor
+public class RestaurantJson {
+
+  private final byte[] json;
+
+  private final HashCode hash;
+}
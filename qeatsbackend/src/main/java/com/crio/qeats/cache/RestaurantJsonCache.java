@@ -0,0 +1,64 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * JSON of restaurants exactly as the API returns them, encoded once per restaurant and then
+ * copied to responses as is.
+ * Entries are keyed by the identity of the {@link RestaurantCatalog} object they were encoded
+ * from, so they can never be stale: a restaurant replaced in the catalog is a new key, and the
+ * entry of the old object goes away with it.
+ * Each entry holds one variant per set of fields asked for (see {@link RestaurantFields}).
+ */
+@Component
+public class RestaurantJsonCache {
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${qeats.restaurant-catalog.local.maximum-size:200000}")
+  private long maximumSize;
+
+  private Cache<Restaurant, ConcurrentMap<RestaurantFields, RestaurantJson>> jsonByRestaurant;
+
+  @PostConstruct
+  public void init() {
+    jsonByRestaurant = Caffeine.newBuilder()
+        .weakKeys()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  public RestaurantJson getJson(Restaurant restaurant, RestaurantFields fields) {
+    return jsonByRestaurant.get(restaurant, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(fields, key -> encode(restaurant, fields));
+  }
+
+  private RestaurantJson encode(Restaurant restaurant, RestaurantFields fields) {
+    try {
+      byte[] json = objectMapper.writer(fields.toFilterProvider()).writeValueAsBytes(restaurant);
+      return new RestaurantJson(json, Hashing.murmur3_128().hashBytes(json));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import ch.hsr.geohash.GeoHash;
+import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.utils.GeoUtils;
+import java.time.LocalTime;
+
+/**
+ * Geohash cell used as the unit of caching for close-by restaurant lookups.
+ * The cell is sized relative to the serving radius (roughly radius x radius), and its cache
+ * entry holds every restaurant within {@link #getSupersetRadiusInKms()} of the cell centre,
+ * which covers the serving circle of any user standing inside the cell. Each request then
+ * filters that superset down to its own exact location.
+ */
+public class ServingCell {
+
+  private static final double KM_PER_DEGREE_LATITUDE = 111.2;
+  private static final int MAX_LATITUDE_BITS = 30;
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+  private static final int WINDOW_IN_SECONDS =
+      GlobalConstants.CLOSEBY_CACHE_TIME_WINDOW_IN_MINUTES * 60;
+
+  private final double servingRadiusInKms;
+  private final double centreLatitude;
+  private final double centreLongitude;
+  private final double supersetRadiusInKms;
+  private final String geoHash;
+
+  private ServingCell(double latitude, double longitude, double servingRadiusInKms) {
+    this.servingRadiusInKms = servingRadiusInKms;
+
+    // Same bisection as a geohash of the given bit precision, done by hand so that the
+    // centre and the key are derived from one computation.
+    int bits = bitPrecisionFor(servingRadiusInKms);
+    double latitudeSpan = 180 / Math.pow(2, bits / 2);
+    double longitudeSpan = 360 / Math.pow(2, bits - bits / 2);
+    double minLatitude = Math.min(90 - latitudeSpan,
+        Math.floor((latitude + 90) / latitudeSpan) * latitudeSpan - 90);
+    double minLongitude = Math.min(180 - longitudeSpan,
+        Math.floor((longitude + 180) / longitudeSpan) * longitudeSpan - 180);
+    this.centreLatitude = minLatitude + latitudeSpan / 2;
+    this.centreLongitude = minLongitude + longitudeSpan / 2;
+    this.geoHash = GeoHash.withBitPrecision(centreLatitude, centreLongitude, bits)
+        .toBinaryString();
+
+    double halfDiagonal = Math.max(
+        GeoUtils.findDistanceInKm(centreLatitude, centreLongitude,
+            minLatitude, minLongitude),
+        GeoUtils.findDistanceInKm(centreLatitude, centreLongitude,
+            minLatitude + latitudeSpan, minLongitude));
+    this.supersetRadiusInKms = servingRadiusInKms + halfDiagonal;
+  }
+
+  /**
+   * Get the cell containing the given location for the given serving radius.
+   * @param latitude latitude of the user
+   * @param longitude longitude of the user
+   * @param servingRadiusInKms serving radius in effect
+   * @return serving cell
+   */
+  public static ServingCell of(double latitude, double longitude, double servingRadiusInKms) {
+    return new ServingCell(latitude, longitude, servingRadiusInKms);
+  }
+
+  /**
+   * Number of geohash bits giving the largest cell that is no taller than the radius.
+   * An odd bit count gives the longitude one bit more than the latitude, which makes the
+   * cell close to square (eg. 25 bits ~ 4.9km for 5km, 27 bits ~ 2.4km for 3km).
+   */
+  static int bitPrecisionFor(double servingRadiusInKms) {
+    if (servingRadiusInKms <= 0) {
+      throw new IllegalArgumentException("Invalid serving radius " + servingRadiusInKms);
+    }
+    double cellsAlongMeridian = 180 * KM_PER_DEGREE_LATITUDE / servingRadiusInKms;
+    int latitudeBits = (int) Math.ceil(Math.log(cellsAlongMeridian) / Math.log(2));
+    latitudeBits = Math.max(1, Math.min(MAX_LATITUDE_BITS, latitudeBits));
+    return 2 * latitudeBits + 1;
+  }
+
+  public String getCacheKey() {
+    return "restaurants:closeby:" + servingRadiusInKms + ":" + geoHash;
+  }
+
+  /**
+   * Get the cache key of this cell for the time window containing {@code currentTime}.
+   * The serving radius in the key already separates peak and normal hour entries.
+   */
+  public String getCacheKey(LocalTime currentTime) {
+    return getCacheKey() + ":" + currentTime.toSecondOfDay() / WINDOW_IN_SECONDS;
+  }
+
+  /**
+   * Get the end of the time window containing {@code currentTime}, in nanos of the day.
+   * The last window of the day ends at midnight, ie. {@code 24 * 60 * 60 * 10^9}.
+   */
+  public static long getTimeWindowEndNanos(LocalTime currentTime) {
+    long window = currentTime.toSecondOfDay() / WINDOW_IN_SECONDS;
+    return (window + 1) * WINDOW_IN_SECONDS * NANOS_PER_SECOND;
+  }
+
+  public double getCentreLatitude() {
+    return centreLatitude;
+  }
+
+  public double getCentreLongitude() {
+    return centreLongitude;
+  }
+
+  public double getServingRadiusInKms() {
+    return servingRadiusInKms;
+  }
+
+  public double getSupersetRadiusInKms() {
+    return supersetRadiusInKms;
+  }
+}
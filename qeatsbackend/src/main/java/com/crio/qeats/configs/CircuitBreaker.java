@@ -0,0 +1,158 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Count based circuit breaker.
+ *   - CLOSED: calls go through, the outcome of the last {@code windowSize} calls is kept. Once
+ *     at least {@code minimumCalls} were seen and the failure rate reaches the threshold, it
+ *     opens.
+ *   - OPEN: calls are rejected without being attempted, for {@code openDurationMillis}.
+ *   - HALF_OPEN: up to {@code halfOpenCalls} trial calls go through. If all of them succeed it
+ *     closes, the first failure opens it again.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private final boolean[] failedCalls;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final long openDurationMillis;
+  private final int halfOpenCalls;
+  private final LongSupplier clock;
+
+  private State state = State.CLOSED;
+  private int windowPosition;
+  private int windowCount;
+  private int windowFailures;
+  private long openedAtMillis;
+  private int halfOpenPermits;
+  private int halfOpenSuccesses;
+  private BiConsumer<State, State> transitionListener = (from, to) -> { };
+
+  /**
+   * Creates a closed breaker.
+   * @param windowSize number of most recent calls the failure rate is computed over
+   * @param minimumCalls calls needed in the window before the breaker may open
+   * @param failureRateThreshold failure rate, between 0 and 1, at which the breaker opens
+   * @param openDurationMillis how long the breaker stays open before trial calls are let through
+   * @param halfOpenCalls number of trial calls that must succeed to close the breaker
+   * @param clock current time in milliseconds
+   */
+  public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+      long openDurationMillis, int halfOpenCalls, LongSupplier clock) {
+    if (windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+      throw new IllegalArgumentException("Window size, minimum and half open calls must be > 0");
+    }
+    this.failedCalls = new boolean[windowSize];
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDurationMillis = openDurationMillis;
+    this.halfOpenCalls = halfOpenCalls;
+    this.clock = clock;
+  }
+
+  // Called with (from, to) on every state change, while holding the breaker's lock.
+  public synchronized void setTransitionListener(BiConsumer<State, State> transitionListener) {
+    this.transitionListener = transitionListener;
+  }
+
+  public synchronized State getState() {
+    if (state == State.OPEN && openDurationElapsed()) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  /**
+   * Asks to make a call. Every permitted call must be followed by
+   * {@link #onSuccess()} or {@link #onFailure()}.
+   * @return true if the call may be made, false if it must be rejected
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (!openDurationElapsed()) {
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+      halfOpenPermits = halfOpenCalls;
+      halfOpenSuccesses = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenPermits == 0) {
+        return false;
+      }
+      halfOpenPermits--;
+    }
+    return true;
+  }
+
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      if (++halfOpenSuccesses >= halfOpenCalls) {
+        resetWindow();
+        transitionTo(State.CLOSED);
+      }
+    } else if (state == State.CLOSED) {
+      record(false);
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      open();
+    } else if (state == State.CLOSED) {
+      record(true);
+      if (windowCount >= minimumCalls
+          && (double) windowFailures / windowCount >= failureRateThreshold) {
+        open();
+      }
+    }
+  }
+
+  private void record(boolean failed) {
+    if (windowCount == failedCalls.length) {
+      if (failedCalls[windowPosition]) {
+        windowFailures--;
+      }
+    } else {
+      windowCount++;
+    }
+    failedCalls[windowPosition] = failed;
+    if (failed) {
+      windowFailures++;
+    }
+    windowPosition = (windowPosition + 1) % failedCalls.length;
+  }
+
+  private void open() {
+    openedAtMillis = clock.getAsLong();
+    transitionTo(State.OPEN);
+  }
+
+  private boolean openDurationElapsed() {
+    return clock.getAsLong() - openedAtMillis >= openDurationMillis;
+  }
+
+  private void resetWindow() {
+    windowPosition = 0;
+    windowCount = 0;
+    windowFailures = 0;
+  }
+
+  private void transitionTo(State newState) {
+    State oldState = state;
+    state = newState;
+    transitionListener.accept(oldState, newState);
+  }
+}
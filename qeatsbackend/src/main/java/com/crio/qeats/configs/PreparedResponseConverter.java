@@ -0,0 +1,91 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes a {@link PreparedRestaurantsResponse} by copying the JSON of each restaurant between
+ * the bytes of the enclosing object, the same document Jackson writes for a
+ * {@link com.crio.qeats.exchanges.GetRestaurantsResponse}.
+ */
+public class PreparedResponseConverter
+    extends AbstractHttpMessageConverter<PreparedRestaurantsResponse> {
+
+  private static final byte[] PREFIX = "{\"restaurants\":[".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+  public PreparedResponseConverter() {
+    super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return PreparedRestaurantsResponse.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected PreparedRestaurantsResponse readInternal(
+      Class<? extends PreparedRestaurantsResponse> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("Prepared responses are write only",
+        inputMessage);
+  }
+
+  @Override
+  protected Long getContentLength(PreparedRestaurantsResponse response, MediaType contentType) {
+    return contentLength(response);
+  }
+
+  @Override
+  protected void writeInternal(PreparedRestaurantsResponse response,
+      HttpOutputMessage outputMessage) throws IOException {
+    writeTo(response, outputMessage.getBody());
+  }
+
+  /**
+   * Get the size in bytes of the JSON document of the response.
+   */
+  public static long contentLength(PreparedRestaurantsResponse response) {
+    List<byte[]> restaurants = response.getRestaurants();
+    long length = PREFIX.length + SUFFIX.length + Math.max(0, restaurants.size() - 1);
+    for (byte[] restaurant : restaurants) {
+      length += restaurant.length;
+    }
+    return length;
+  }
+
+  /**
+   * Writes the JSON document of the response.
+   */
+  public static void writeTo(PreparedRestaurantsResponse response, OutputStream body)
+      throws IOException {
+    body.write(PREFIX);
+    boolean first = true;
+    for (byte[] restaurant : response.getRestaurants()) {
+      if (!first) {
+        body.write(',');
+      }
+      body.write(restaurant);
+      first = false;
+    }
+    body.write(SUFFIX);
+  }
+}
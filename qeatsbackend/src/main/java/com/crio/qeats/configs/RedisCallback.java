@@ -0,0 +1,17 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import java.io.IOException;
+import redis.clients.jedis.Jedis;
+
+// Work done with a pooled connection lent by RedisClient, which must not keep or close it.
+@FunctionalInterface
+public interface RedisCallback<T> {
+
+  T doInRedis(Jedis jedis) throws IOException;
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+/**
+ * The way to talk to Redis: borrows a connection from the {@link RedisConfiguration} pool for
+ * a single operation and always gives it back, whatever the outcome.
+ * Every command is bounded by {@code qeats.redis.command-timeout-ms} and every borrow by
+ * {@code qeats.redis.pool.max-wait-ms}, so callers see an exception instead of hanging.
+ *
+ * <p>Operations go through a {@link CircuitBreaker}: errors, timeouts and calls slower than
+ * {@code slow-call-ms} count as failures, and while the breaker is open operations fail at once
+ * with {@link RedisUnavailableException}. Callers can check {@link #isAvailable()} to skip Redis
+ * altogether while it is down.
+ *
+ * <p>Metrics, under {@code qeats.redis}:
+ *   - pool.active / pool.idle / pool.waiters: connections in use, idle, and threads waiting.
+ *   - pool.borrow: time spent getting a connection from the pool.
+ *   - command{operation}: time spent in the operation, tagged with its outcome.
+ *   - breaker.state: 0 closed, 1 open, 2 half open.
+ *   - breaker.transitions{to}: state changes; breaker.rejected: operations not attempted.
+ */
+@Component
+@Log4j2
+public class RedisClient {
+
+  static final String METRIC_PREFIX = "qeats.redis";
+
+  @Autowired
+  private RedisConfiguration redisConfiguration;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${qeats.redis.circuit-breaker.enabled:true}")
+  private boolean circuitBreakerEnabled;
+
+  @Value("${qeats.redis.circuit-breaker.window-size:50}")
+  private int windowSize;
+
+  @Value("${qeats.redis.circuit-breaker.minimum-calls:20}")
+  private int minimumCalls;
+
+  @Value("${qeats.redis.circuit-breaker.failure-rate-threshold:0.5}")
+  private double failureRateThreshold;
+
+  @Value("${qeats.redis.circuit-breaker.slow-call-ms:250}")
+  private long slowCallInMillis;
+
+  @Value("${qeats.redis.circuit-breaker.open-duration-ms:5000}")
+  private long openDurationInMillis;
+
+  @Value("${qeats.redis.circuit-breaker.half-open-calls:3}")
+  private int halfOpenCalls;
+
+  private CircuitBreaker circuitBreaker;
+  private Timer borrowLatency;
+  private Counter rejectedCalls;
+
+  @PostConstruct
+  public void init() {
+    // The pool is recreated after RedisConfiguration#destroyCache, so always read the current one.
+    meterRegistry.gauge(METRIC_PREFIX + ".pool.active", redisConfiguration,
+        configuration -> configuration.getJedisPool().getNumActive());
+    meterRegistry.gauge(METRIC_PREFIX + ".pool.idle", redisConfiguration,
+        configuration -> configuration.getJedisPool().getNumIdle());
+    meterRegistry.gauge(METRIC_PREFIX + ".pool.waiters", redisConfiguration,
+        configuration -> configuration.getJedisPool().getNumWaiters());
+    borrowLatency = meterRegistry.timer(METRIC_PREFIX + ".pool.borrow");
+
+    circuitBreaker = new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold,
+        openDurationInMillis, halfOpenCalls, System::currentTimeMillis);
+    circuitBreaker.setTransitionListener((from, to) -> {
+      log.warn("Redis circuit breaker went from {} to {}", from, to);
+      meterRegistry.counter(METRIC_PREFIX + ".breaker.transitions", "to", to.name()).increment();
+    });
+    meterRegistry.gauge(METRIC_PREFIX + ".breaker.state", circuitBreaker,
+        breaker -> breaker.getState().ordinal());
+    rejectedCalls = meterRegistry.counter(METRIC_PREFIX + ".breaker.rejected");
+  }
+
+  /**
+   * Whether Redis operations are currently being attempted, ie. the breaker is not open.
+   * A half open breaker counts as available so that trial calls get made.
+   */
+  public boolean isAvailable() {
+    return !circuitBreakerEnabled || circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+  }
+
+  /**
+   * Runs the callback with a pooled connection.
+   * @param operation name of the operation, used as the metric tag
+   * @param callback work to do with the connection
+   * @return what the callback returned
+   * @throws IOException if the callback fails to encode or decode a value
+   * @throws RedisUnavailableException if the circuit breaker is open
+   * @throws redis.clients.jedis.exceptions.JedisException if no connection could be had in time
+   *     or the command failed or timed out
+   */
+  public <T> T execute(String operation, RedisCallback<T> callback) throws IOException {
+    if (circuitBreakerEnabled && !circuitBreaker.tryAcquire()) {
+      rejectedCalls.increment();
+      throw new RedisUnavailableException("Redis circuit breaker is open, skipped " + operation);
+    }
+
+    long startTime = System.nanoTime();
+    String outcome = "error";
+    try (Jedis jedis = borrow()) {
+      T result = callback.doInRedis(jedis);
+      outcome = "success";
+      return result;
+    } finally {
+      long elapsedNanos = System.nanoTime() - startTime;
+      meterRegistry.timer(METRIC_PREFIX + ".command", "operation", operation, "outcome", outcome)
+          .record(elapsedNanos, TimeUnit.NANOSECONDS);
+      if (circuitBreakerEnabled) {
+        if ("success".equals(outcome)
+            && TimeUnit.NANOSECONDS.toMillis(elapsedNanos) < slowCallInMillis) {
+          circuitBreaker.onSuccess();
+        } else {
+          circuitBreaker.onFailure();
+        }
+      }
+    }
+  }
+
+  private Jedis borrow() {
+    JedisPool jedisPool = redisConfiguration.getJedisPool();
+    long startTime = System.nanoTime();
+    try {
+      return jedisPool.getResource();
+    } finally {
+      borrowLatency.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -3,14 +3,17 @@ package com.crio.qeats.configs;
 
 import java.time.Duration;
 import javax.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
 
 
 @Component
+@Log4j2
 public class RedisConfiguration {
 
   public static final String redisHost = "localhost";
@@ -25,6 +28,37 @@ public class RedisConfiguration {
   private int redisPort;
   private JedisPool jedisPool;
 
+  @Value("${qeats.redis.pool.max-total:128}")
+  private int maxTotal;
+
+  @Value("${qeats.redis.pool.max-idle:128}")
+  private int maxIdle;
+
+  @Value("${qeats.redis.pool.min-idle:16}")
+  private int minIdle;
+
+  // Each of these costs a PING round trip per borrow / return, idle connections are still
+  // validated by the evictor through test-while-idle.
+  @Value("${qeats.redis.pool.test-on-borrow:false}")
+  private boolean testOnBorrow;
+
+  @Value("${qeats.redis.pool.test-on-return:false}")
+  private boolean testOnReturn;
+
+  @Value("${qeats.redis.pool.test-while-idle:true}")
+  private boolean testWhileIdle;
+
+  // How long a caller waits for a connection when all of them are in use.
+  @Value("${qeats.redis.pool.max-wait-ms:200}")
+  private long maxWaitInMillis;
+
+  @Value("${qeats.redis.connect-timeout-ms:" + Protocol.DEFAULT_TIMEOUT + "}")
+  private int connectTimeoutInMillis;
+
+  // Bounds every single command, a slow or hung Redis fails the call instead of the request.
+  @Value("${qeats.redis.command-timeout-ms:500}")
+  private int commandTimeoutInMillis;
+
   public JedisPool getJedisPool() {
     if (jedisPool == null) {
       initCache();
@@ -32,18 +66,19 @@ public class RedisConfiguration {
     return jedisPool;
   }
 
-  private static JedisPoolConfig buildPoolConfig() {
+  private JedisPoolConfig buildPoolConfig() {
     final JedisPoolConfig poolConfig = new JedisPoolConfig();
-    poolConfig.setMaxTotal(128);
-    poolConfig.setMaxIdle(128);
-    poolConfig.setMinIdle(16);
-    poolConfig.setTestOnBorrow(true);
-    poolConfig.setTestOnReturn(true);
-    poolConfig.setTestWhileIdle(true);
+    poolConfig.setMaxTotal(maxTotal);
+    poolConfig.setMaxIdle(maxIdle);
+    poolConfig.setMinIdle(minIdle);
+    poolConfig.setTestOnBorrow(testOnBorrow);
+    poolConfig.setTestOnReturn(testOnReturn);
+    poolConfig.setTestWhileIdle(testWhileIdle);
     poolConfig.setMinEvictableIdleTimeMillis(Duration.ofSeconds(60).toMillis());
     poolConfig.setTimeBetweenEvictionRunsMillis(Duration.ofSeconds(30).toMillis());
     poolConfig.setNumTestsPerEvictionRun(3);
     poolConfig.setBlockWhenExhausted(true);
+    poolConfig.setMaxWaitMillis(maxWaitInMillis);
     return poolConfig;
   }
 
@@ -60,7 +95,8 @@ public class RedisConfiguration {
   @PostConstruct
   public void initCache() {
     final JedisPoolConfig poolConfig = buildPoolConfig();
-    jedisPool = new JedisPool(poolConfig, redisHost, redisPort);
+    jedisPool = new JedisPool(poolConfig, redisHost, redisPort, connectTimeoutInMillis,
+        commandTimeoutInMillis, null, Protocol.DEFAULT_DATABASE, null);
   }
 
 
@@ -83,7 +119,11 @@ public class RedisConfiguration {
    */
   public void destroyCache() {
     if (jedisPool != null) {
-      jedisPool.getResource().flushAll();
+      try (Jedis jedis = jedisPool.getResource()) {
+        jedis.flushAll();
+      } catch (Exception e) {
+        log.warn("Unable to flush redis", e);
+      }
       jedisPool.destroy();
       jedisPool = null;
     }
@@ -0,0 +1,16 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+// Thrown instead of attempting a Redis operation while the circuit breaker is open.
+@SuppressWarnings("serial")
+public class RedisUnavailableException extends RuntimeException {
+
+  public RedisUnavailableException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Executor the search sources run on, so a search request queries them concurrently instead of
+ * one after the other.
+ * It is bounded in threads and queue; once both are full new tasks are rejected, and the search
+ * leaves those sources out rather than running them on the request thread past its deadline.
+ * Pool size, queue depth and task timings are exported as {@code qeats.search.executor}.
+ */
+@Configuration
+public class SearchExecutorConfiguration {
+
+  public static final String SEARCH_EXECUTOR = "searchExecutor";
+
+  @Value("${qeats.search.executor.threads:32}")
+  private int threads;
+
+  @Value("${qeats.search.executor.queue-capacity:1000}")
+  private int queueCapacity;
+
+  @Bean(name = SEARCH_EXECUTOR, destroyMethod = "shutdown")
+  public ExecutorService searchExecutor(MeterRegistry meterRegistry) {
+    return ExecutorServiceMetrics.monitor(meterRegistry, newSearchExecutor(threads, queueCapacity),
+        "qeats.search.executor");
+  }
+
+  /**
+   * Creates a fixed size executor with a bounded queue that rejects tasks, with a
+   * {@link java.util.concurrent.RejectedExecutionException}, once saturated.
+   */
+  public static ThreadPoolExecutor newSearchExecutor(int threads, int queueCapacity) {
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        new ThreadFactoryBuilder().setNameFormat("search-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+}
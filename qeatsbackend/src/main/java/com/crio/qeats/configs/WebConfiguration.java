@@ -0,0 +1,38 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import java.util.List;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+  // Lets responses leave out the restaurant fields a client did not ask for. Restaurants are
+  // written whole unless a request sets its own filters.
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer restaurantFieldsFilter() {
+    return builder -> builder
+        .mixIn(Restaurant.class, RestaurantFields.FilterMixIn.class)
+        .filters(new SimpleFilterProvider()
+            .addFilter(RestaurantFields.FILTER_ID, SimpleBeanPropertyFilter.serializeAll()));
+  }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // Ahead of Jackson, which would otherwise write the prepared fragments as base64 strings.
+    converters.add(0, new PreparedResponseConverter());
+  }
+}
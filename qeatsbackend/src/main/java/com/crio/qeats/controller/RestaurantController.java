@@ -6,21 +6,29 @@
 
 package com.crio.qeats.controller;
 
-import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.cache.CompressedResponseCache;
+import com.crio.qeats.configs.PreparedResponseConverter;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.GetSuggestionsResponse;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.crio.qeats.mappers.ProtoMapper;
 import com.crio.qeats.services.RestaurantService;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 import javax.validation.Valid;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -32,19 +40,80 @@ public class RestaurantController {
 
   public static final String RESTAURANT_API_ENDPOINT = "/qeats/v1";
   public static final String RESTAURANTS_API = "/restaurants";
+  public static final String SUGGEST_API = "/restaurants/suggest";
   public static final String MENU_API = "/menu";
   public static final String CART_API = "/cart";
   public static final String CART_ITEM_API = "/cart/item";
   public static final String CART_CLEAR_API = "/cart/clear";
   public static final String POST_ORDER_API = "/order";
   public static final String GET_ORDERS_API = "/orders";
+  public static final String PROTOBUF_MEDIA_TYPE = "application/x-protobuf";
 
   @Autowired
   private RestaurantService restaurantService;
 
+  @Autowired
+  private CompressedResponseCache compressedResponseCache;
+
+  // Run the search sources concurrently on the search executor instead of one after another.
+  @Value("${qeats.search.concurrent:true}")
+  private boolean concurrentSearch;
+
+  // Write close-by responses from the JSON cached per restaurant instead of through Jackson.
+  @Value("${qeats.closeby.prepared-response:true}")
+  private boolean preparedCloseByResponse;
+
+  // Smallest prepared close-by response sent gzipped to clients accepting it, negative for never.
+  @Value("${qeats.closeby.gzip.min-bytes:1024}")
+  private long gzipMinBytes;
+
   @GetMapping(RESTAURANTS_API)
-  public ResponseEntity<GetRestaurantsResponse> getRestaurants(
+  public ResponseEntity<?> getRestaurants(
+       GetRestaurantsRequest getRestaurantsRequest,
+       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+           String acceptEncoding) {
+    RestaurantFields fields;
+    try {
+      fields = RestaurantFields.parse(getRestaurantsRequest.getFields());
+    } catch (IllegalArgumentException e) {
+      log.info("Invalid fields in {}: {}", getRestaurantsRequest, e.getMessage());
+      return ResponseEntity.badRequest().body(null);
+    }
+    ResponseEntity<?> response =
+        findRestaurants(getRestaurantsRequest, preparedCloseByResponse, acceptEncoding);
+    if (fields.isAll() || !(response.getBody() instanceof GetRestaurantsResponse)) {
+      return response;
+    }
+    MappingJacksonValue body = new MappingJacksonValue(response.getBody());
+    body.setFilters(fields.toFilterProvider());
+    return ResponseEntity.status(response.getStatusCode()).body(body);
+  }
+
+  /**
+   * Same as {@link #getRestaurants}, as protocol buffers (see qeats.proto) for clients that
+   * accept application/x-protobuf. Fields left out of a fields= list are read as empty.
+   */
+  @GetMapping(value = RESTAURANTS_API, produces = PROTOBUF_MEDIA_TYPE)
+  public ResponseEntity<byte[]> getRestaurantsAsProtobuf(
        GetRestaurantsRequest getRestaurantsRequest) {
+    RestaurantFields fields;
+    try {
+      fields = RestaurantFields.parse(getRestaurantsRequest.getFields());
+    } catch (IllegalArgumentException e) {
+      log.info("Invalid fields in {}: {}", getRestaurantsRequest, e.getMessage());
+      return ResponseEntity.badRequest().build();
+    }
+    ResponseEntity<?> response = findRestaurants(getRestaurantsRequest, false, null);
+    if (!(response.getBody() instanceof GetRestaurantsResponse)) {
+      return ResponseEntity.status(response.getStatusCode()).build();
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(PROTOBUF_MEDIA_TYPE))
+        .body(ProtoMapper.toProto((GetRestaurantsResponse) response.getBody(), fields));
+  }
+
+  private ResponseEntity<?> findRestaurants(GetRestaurantsRequest getRestaurantsRequest,
+      boolean prepared, String acceptEncoding) {
 
     log.info("getRestaurants called with {}", getRestaurantsRequest);
     GetRestaurantsResponse getRestaurantsResponse;
@@ -54,32 +123,74 @@ public class RestaurantController {
         && getRestaurantsRequest.getLongitude() >= -180 
         && getRestaurantsRequest.getLongitude() <= 180) {
 
-      List<Restaurant> restaurants = new ArrayList<>();
       // If searching by searchFor string
       if (getRestaurantsRequest.getSearchFor() != null 
           && !getRestaurantsRequest.getSearchFor().isEmpty()) {
-        getRestaurantsResponse = restaurantService
-          .findRestaurantsBySearchQuery(getRestaurantsRequest, LocalTime.now());
+        try {
+          getRestaurantsResponse = concurrentSearch
+              ? restaurantService.findRestaurantsBySearchQueryMt(getRestaurantsRequest,
+                  LocalTime.now())
+              : restaurantService.findRestaurantsBySearchQuery(getRestaurantsRequest,
+                  LocalTime.now());
+        } catch (IllegalArgumentException e) {
+          // Malformed cursor or limit.
+          log.info("Invalid search request {}: {}", getRestaurantsRequest, e.getMessage());
+          return ResponseEntity.badRequest().body(null);
+        }
         if (getRestaurantsResponse == null) {
           return ResponseEntity.ok().body(null);
         }
-        restaurants = getRestaurantsResponse.getRestaurants();
+      } else if (prepared) {
+        return toResponseEntity(restaurantService
+            .findAllRestaurantsCloseByPrepared(getRestaurantsRequest, LocalTime.now()),
+            acceptEncoding);
       } else { // Get nearby restaurants
         getRestaurantsResponse = restaurantService
           .findAllRestaurantsCloseBy(getRestaurantsRequest, LocalTime.now());
-        restaurants = getRestaurantsResponse.getRestaurants();
       }
 
-      for (Restaurant r : restaurants) {
-        String str = r.getName().replaceAll("[Â©éí]", "e");
-        r.setName(str);
-      }
       log.info("getRestaurants returned {}", getRestaurantsResponse);
-      getRestaurantsResponse.setRestaurants(restaurants);
       return ResponseEntity.ok().body(getRestaurantsResponse);
     } else {
       return ResponseEntity.badRequest().body(null);
     }
   }
-}
 
+  // Each content coding is its own representation with its own strong ETag. Spring answers a
+  // matching If-None-Match with 304 before the body is written.
+  private ResponseEntity<?> toResponseEntity(PreparedRestaurantsResponse response,
+      String acceptEncoding) {
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (gzipMinBytes >= 0 && acceptsGzip(acceptEncoding)
+        && PreparedResponseConverter.contentLength(response) >= gzipMinBytes) {
+      return ok.eTag(response.getEtag() + "-gzip")
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(compressedResponseCache.getGzip(response));
+    }
+    return ok.eTag(response.getEtag()).body(response);
+  }
+
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parameters = coding.split(";");
+      if ("gzip".equalsIgnoreCase(parameters[0].trim())) {
+        return parameters.length == 1 || !parameters[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  @GetMapping(SUGGEST_API)
+  public ResponseEntity<GetSuggestionsResponse> getSuggestions(
+      @RequestParam String prefix,
+      @RequestParam(defaultValue = "10") int limit) {
+    if (limit < 1) {
+      return ResponseEntity.badRequest().body(null);
+    }
+    return ResponseEntity.ok().body(restaurantService.findSuggestions(prefix, limit));
+  }
+}
@@ -28,5 +28,12 @@ public class GetRestaurantsRequest {
   @Max(value = 180)
   private Double longitude;
   private String searchFor;
+  // Maximum number of restaurants to return for a search, all of them if absent.
+  @Min(value = 1)
+  private Integer limit;
+  // Where to continue a search from, as returned in the previous response's nextCursor.
+  private String cursor;
+  // Comma separated Restaurant fields to return, all of them if absent (see RestaurantFields).
+  private String fields;
 }
 
@@ -7,6 +7,7 @@
 package com.crio.qeats.exchanges;
 
 import com.crio.qeats.dto.Restaurant;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,4 +18,17 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class GetRestaurantsResponse {
   List<Restaurant> restaurants;
+
+  // Set when some search sources did not answer within the request's latency budget, so the
+  // restaurants are only those found by the others.
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  boolean partial;
+
+  // Cursor to pass to get the next page of search results, absent on the last page.
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  String nextCursor;
+
+  public GetRestaurantsResponse(List<Restaurant> restaurants) {
+    this.restaurants = restaurants;
+  }
 }
@@ -0,0 +1,26 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.exchanges;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Same response as {@link GetRestaurantsResponse}, with the restaurants already encoded as
+ * JSON, written out by {@link com.crio.qeats.configs.PreparedResponseConverter} without going
+ * through Jackson again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreparedRestaurantsResponse {
+  List<byte[]> restaurants;
+  // Strong ETag of the JSON document (without quotes), changes whenever a byte of it does.
+  String etag;
+}
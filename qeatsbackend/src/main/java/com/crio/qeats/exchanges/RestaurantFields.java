@@ -0,0 +1,85 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.exchanges;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Fields of {@link com.crio.qeats.dto.Restaurant} a client asked for with {@code fields=}, eg.
+ * "restaurantId,name,imageUrl,latitude,longitude,attributes" for the list screen.
+ * restaurantId is always included.
+ * Responses are trimmed to them by the {@link #FILTER_ID} Jackson filter, which the application
+ * ObjectMapper attaches to Restaurant (see WebConfiguration), so the DTO and its JSON outside
+ * of responses stay as they are.
+ */
+@EqualsAndHashCode
+public final class RestaurantFields {
+
+  public static final String FILTER_ID = "restaurantFields";
+
+  public static final String RESTAURANT_ID = "restaurantId";
+
+  private static final ImmutableList<String> NAMES = ImmutableList.of(RESTAURANT_ID, "name",
+      "city", "imageUrl", "latitude", "longitude", "opensAt", "closesAt", "attributes");
+
+  public static final RestaurantFields ALL = new RestaurantFields(ImmutableSet.copyOf(NAMES));
+
+  private final ImmutableSet<String> names;
+
+  private RestaurantFields(ImmutableSet<String> names) {
+    this.names = names;
+  }
+
+  /**
+   * Get the fields listed in the comma separated value of the fields parameter.
+   * @param fields fields parameter, all fields if null or blank
+   * @throws IllegalArgumentException if a field is not one of Restaurant's
+   */
+  public static RestaurantFields parse(String fields) {
+    if (fields == null || fields.trim().isEmpty()) {
+      return ALL;
+    }
+    ImmutableSet.Builder<String> names = ImmutableSet.<String>builder().add(RESTAURANT_ID);
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (!name.isEmpty()) {
+        if (!NAMES.contains(name)) {
+          throw new IllegalArgumentException("Unknown restaurant field " + name);
+        }
+        names.add(name);
+      }
+    }
+    return new RestaurantFields(names.build());
+  }
+
+  public ImmutableSet<String> getNames() {
+    return names;
+  }
+
+  public boolean isAll() {
+    return names.size() == NAMES.size();
+  }
+
+  /**
+   * Get the filters that leave only these fields in the JSON of restaurants.
+   */
+  public FilterProvider toFilterProvider() {
+    return new SimpleFilterProvider()
+        .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+  }
+
+  // Attaches the filter to Restaurant as a Jackson mix-in.
+  @JsonFilter(FILTER_ID)
+  public interface FilterMixIn {
+  }
+}
@@ -6,6 +6,9 @@ public class GlobalConstants {
   // Amount of time after which the redis entries should expire.
   public static final int REDIS_ENTRY_EXPIRY_IN_SECONDS = 3600;
 
+  // Length of the time of day windows that close-by cache entries are keyed by.
+  public static final int CLOSEBY_CACHE_TIME_WINDOW_IN_MINUTES = 30;
+
   // TIP(MODULE_RABBITMQ): RabbitMQ related configs.
   public static final String EXCHANGE_NAME = "rabbitmq-exchange";
   public static final String QUEUE_NAME = "rabbitmq-queue";
@@ -0,0 +1,99 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.MenuEntity;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process local reverse index from items, item names and item attributes to the restaurants
+ * serving them, so item based search doesn't have to go through the items and menus
+ * collections.
+ *   - Built and rebuilt by {@link RestaurantIndexLoader}.
+ *   - Kept current through the Mongo lifecycle events of {@link MenuEntity}.
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(value = "qeats.item-index.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class ItemRestaurantIndex {
+
+  private final SwappableIndex<ItemRestaurantMap> itemRestaurantMap = new SwappableIndex<>();
+
+  public boolean isReady() {
+    return itemRestaurantMap.get() != null;
+  }
+
+  /**
+   * Get the restaurants serving any of the given items.
+   * @throws IllegalStateException if the index has not been built yet
+   */
+  public Set<String> findRestaurantsServingItems(Collection<String> itemIds) {
+    return get().findRestaurantsServingItems(itemIds);
+  }
+
+  /**
+   * Get the restaurants serving an item whose name contains any token of the search string.
+   * @throws IllegalStateException if the index has not been built yet
+   */
+  public Set<String> findRestaurantsServingItemName(String searchString) {
+    return get().findRestaurantsServingItemName(searchString);
+  }
+
+  /**
+   * Get the restaurants serving an item whose attributes contain every token of the search
+   * string.
+   * @throws IllegalStateException if the index has not been built yet
+   */
+  public Set<String> findRestaurantsServingItemAttributes(String searchString) {
+    return get().findRestaurantsServingItemAttributes(searchString);
+  }
+
+  public void beginRebuild() {
+    itemRestaurantMap.beginRebuild();
+  }
+
+  /**
+   * Indexes the given menus into a fresh index and swaps it in.
+   * Readers keep using the previous index until the new one is complete.
+   */
+  public void rebuild(List<MenuEntity> menuEntities) {
+    long startTime = System.currentTimeMillis();
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    for (MenuEntity menuEntity : menuEntities) {
+      index.upsertMenu(menuEntity);
+    }
+    itemRestaurantMap.finishRebuild(index);
+    log.info("Built item to restaurant index with {} menus in {} ms", index.size(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  public void cancelRebuild() {
+    itemRestaurantMap.cancelRebuild();
+  }
+
+  public void upsertMenu(MenuEntity menuEntity) {
+    itemRestaurantMap.write(index -> index.upsertMenu(menuEntity));
+  }
+
+  public void removeMenu(String id) {
+    itemRestaurantMap.write(index -> index.removeMenu(id));
+  }
+
+  private ItemRestaurantMap get() {
+    ItemRestaurantMap index = itemRestaurantMap.get();
+    if (index == null) {
+      throw new IllegalStateException("Item to restaurant index is not built yet");
+    }
+    return index;
+  }
+}
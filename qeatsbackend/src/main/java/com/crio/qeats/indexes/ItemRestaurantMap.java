@@ -0,0 +1,193 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.models.MenuEntity;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index of menus: which restaurants serve an item, an item with a given name, and an
+ * item with given attributes. Names and attributes are matched token by token (see
+ * {@link SearchTokenizer}) like the regex queries on the items collection, and like in
+ * {@link RestaurantTokenIndex}:
+ *   - A search token matches every token containing it, eg. "veg" matches "Non Vegetarian".
+ *   - Any token of a name search may match, every token of an attribute search must match the
+ *     attributes of the same item.
+ */
+public class ItemRestaurantMap {
+
+  // Separates the restaurantId from the position of the item on the menu in item keys.
+  private static final char ITEM_SEPARATOR = '\u0000';
+
+  // itemId -> restaurantIds
+  private final Map<String, Set<String>> restaurantsByItem = new HashMap<>();
+  // item name token -> item keys, ie. restaurantId + ITEM_SEPARATOR + position on the menu
+  private final Map<String, Set<String>> itemsByNameToken = new HashMap<>();
+  private final TrigramIndex nameTokens = new TrigramIndex();
+  // item attribute token -> item keys
+  private final Map<String, Set<String>> itemsByAttributeToken = new HashMap<>();
+  private final TrigramIndex attributeTokens = new TrigramIndex();
+  // restaurantId -> menu, used to unindex the previous version of a menu.
+  private final Map<String, MenuEntity> menuOfRestaurant = new HashMap<>();
+  // Mongo document id -> restaurantId, delete events only carry the former.
+  private final Map<String, String> restaurantIdOfMenuDocument = new HashMap<>();
+
+  /**
+   * Indexes the items on the menu, replacing the previous menu of the same restaurant.
+   * @param menuEntity menu with a non null restaurantId
+   */
+  public synchronized void upsertMenu(MenuEntity menuEntity) {
+    String restaurantId = menuEntity.getRestaurantId();
+    if (restaurantId == null) {
+      return;
+    }
+    removeMenuOfRestaurant(restaurantId);
+    menuOfRestaurant.put(restaurantId, menuEntity);
+    if (menuEntity.getId() != null) {
+      restaurantIdOfMenuDocument.put(menuEntity.getId(), restaurantId);
+    }
+    List<Item> items = menuEntity.getItems();
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      String itemKey = restaurantId + ITEM_SEPARATOR + i;
+      restaurantsByItem.computeIfAbsent(item.getItemId(), id -> new HashSet<>())
+          .add(restaurantId);
+      for (String token : SearchTokenizer.tokenize(item.getName())) {
+        addPosting(itemsByNameToken, nameTokens, token, itemKey);
+      }
+      for (String token : SearchTokenizer.tokenize(item.getAttributes())) {
+        addPosting(itemsByAttributeToken, attributeTokens, token, itemKey);
+      }
+    }
+  }
+
+  /**
+   * Drops the menu stored under the given (Mongo) document id, if present.
+   */
+  public synchronized void removeMenu(String documentId) {
+    String restaurantId = restaurantIdOfMenuDocument.remove(documentId);
+    if (restaurantId != null) {
+      removeMenuOfRestaurant(restaurantId);
+    }
+  }
+
+  public synchronized int size() {
+    return menuOfRestaurant.size();
+  }
+
+  /**
+   * Get the restaurants serving any of the given items.
+   */
+  public synchronized Set<String> findRestaurantsServingItems(Collection<String> itemIds) {
+    Set<String> restaurantIds = new HashSet<>();
+    for (String itemId : itemIds) {
+      restaurantIds.addAll(restaurantsByItem.getOrDefault(itemId, new HashSet<>()));
+    }
+    return restaurantIds;
+  }
+
+  /**
+   * Get the restaurants serving an item whose name contains any token of the search string.
+   * @return restaurantIds, empty if the search string has no tokens
+   */
+  public synchronized Set<String> findRestaurantsServingItemName(String searchString) {
+    Set<String> itemKeys = new HashSet<>();
+    for (String token : SearchTokenizer.tokenize(searchString)) {
+      itemKeys.addAll(findItems(itemsByNameToken, nameTokens, token));
+    }
+    return restaurantsOf(itemKeys);
+  }
+
+  /**
+   * Get the restaurants serving an item whose attributes contain every token of the search
+   * string, eg. "veg" matches "Vegetarian".
+   * @return restaurantIds, empty if the search string has no tokens
+   */
+  public synchronized Set<String> findRestaurantsServingItemAttributes(String searchString) {
+    Set<String> itemKeys = null;
+    for (String token : SearchTokenizer.tokenize(searchString)) {
+      Set<String> matches = findItems(itemsByAttributeToken, attributeTokens, token);
+      if (itemKeys == null) {
+        itemKeys = matches;
+      } else {
+        itemKeys.retainAll(matches);
+      }
+    }
+    return itemKeys == null ? new HashSet<>() : restaurantsOf(itemKeys);
+  }
+
+  private static Set<String> findItems(Map<String, Set<String>> postings,
+      TrigramIndex trigramIndex, String token) {
+    Set<String> itemKeys = new HashSet<>();
+    for (String matchingToken : trigramIndex.findContaining(token)) {
+      itemKeys.addAll(postings.get(matchingToken));
+    }
+    return itemKeys;
+  }
+
+  private static Set<String> restaurantsOf(Set<String> itemKeys) {
+    Set<String> restaurantIds = new HashSet<>();
+    for (String itemKey : itemKeys) {
+      restaurantIds.add(itemKey.substring(0, itemKey.indexOf(ITEM_SEPARATOR)));
+    }
+    return restaurantIds;
+  }
+
+  private void removeMenuOfRestaurant(String restaurantId) {
+    MenuEntity menuEntity = menuOfRestaurant.remove(restaurantId);
+    if (menuEntity == null) {
+      return;
+    }
+    List<Item> items = menuEntity.getItems();
+    for (int i = 0; i < items.size(); i++) {
+      Item item = items.get(i);
+      String itemKey = restaurantId + ITEM_SEPARATOR + i;
+      Set<String> restaurantIds = restaurantsByItem.get(item.getItemId());
+      if (restaurantIds != null) {
+        restaurantIds.remove(restaurantId);
+        if (restaurantIds.isEmpty()) {
+          restaurantsByItem.remove(item.getItemId());
+        }
+      }
+      for (String token : SearchTokenizer.tokenize(item.getName())) {
+        removePosting(itemsByNameToken, nameTokens, token, itemKey);
+      }
+      for (String token : SearchTokenizer.tokenize(item.getAttributes())) {
+        removePosting(itemsByAttributeToken, attributeTokens, token, itemKey);
+      }
+    }
+  }
+
+  private static void addPosting(Map<String, Set<String>> postings, TrigramIndex trigramIndex,
+      String token, String itemKey) {
+    Set<String> itemKeys = postings.get(token);
+    if (itemKeys == null) {
+      itemKeys = new HashSet<>();
+      postings.put(token, itemKeys);
+      trigramIndex.add(token);
+    }
+    itemKeys.add(itemKey);
+  }
+
+  private static void removePosting(Map<String, Set<String>> postings,
+      TrigramIndex trigramIndex, String token, String itemKey) {
+    Set<String> itemKeys = postings.get(token);
+    if (itemKeys != null) {
+      itemKeys.remove(itemKey);
+      if (itemKeys.isEmpty()) {
+        postings.remove(token);
+        trigramIndex.remove(token);
+      }
+    }
+  }
+}
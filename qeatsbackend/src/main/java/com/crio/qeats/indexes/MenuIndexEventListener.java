@@ -0,0 +1,60 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.MenuEntity;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the item side of the restaurant search index and the item to restaurant index in step
+ * with menu writes made through Spring Data.
+ */
+@Component
+public class MenuIndexEventListener extends AbstractMongoEventListener<MenuEntity> {
+
+  @Autowired(required = false)
+  private RestaurantSearchIndex restaurantSearchIndex;
+
+  @Autowired(required = false)
+  private ItemRestaurantIndex itemRestaurantIndex;
+
+  @Autowired
+  private RestaurantIndexLoader restaurantIndexLoader;
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<MenuEntity> event) {
+    if (restaurantSearchIndex != null) {
+      restaurantSearchIndex.upsertMenu(event.getSource());
+    }
+    if (itemRestaurantIndex != null) {
+      itemRestaurantIndex.upsertMenu(event.getSource());
+    }
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<MenuEntity> event) {
+    Document document = event.getSource();
+    Object id = document == null ? null : document.get("_id");
+    if (id instanceof String || id instanceof ObjectId) {
+      if (restaurantSearchIndex != null) {
+        restaurantSearchIndex.removeMenu(id.toString());
+      }
+      if (itemRestaurantIndex != null) {
+        itemRestaurantIndex.removeMenu(id.toString());
+      }
+    } else {
+      // Deleted by an arbitrary query, we can't tell which menus went away.
+      restaurantIndexLoader.requestRebuild();
+    }
+  }
+}
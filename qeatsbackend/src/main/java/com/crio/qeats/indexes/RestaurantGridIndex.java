@@ -0,0 +1,140 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform latitude/longitude grid over restaurant positions.
+ * Every restaurant lives in exactly one square cell of {@code cellSizeInDegrees}. A proximity
+ * query only visits the cells overlapping the bounding box of the search circle, so the exact
+ * (Haversine) distance check needs to run on those candidates alone.
+ */
+public class RestaurantGridIndex {
+
+  static final double KM_PER_DEGREE_LATITUDE = 111.2;
+
+  private final double cellSizeInDegrees;
+  private final int latitudeCells;
+  private final int longitudeCells;
+
+  // cellId -> (id -> restaurant)
+  private final Map<Long, Map<String, RestaurantEntity>> cells = new ConcurrentHashMap<>();
+  // id -> cellId, used to move or drop a restaurant without scanning the grid.
+  private final Map<String, Long> cellOfRestaurant = new ConcurrentHashMap<>();
+
+  public RestaurantGridIndex(double cellSizeInDegrees) {
+    if (cellSizeInDegrees <= 0 || cellSizeInDegrees > 90) {
+      throw new IllegalArgumentException("Invalid grid cell size " + cellSizeInDegrees);
+    }
+    this.cellSizeInDegrees = cellSizeInDegrees;
+    this.latitudeCells = (int) Math.ceil(180 / cellSizeInDegrees);
+    this.longitudeCells = (int) Math.ceil(360 / cellSizeInDegrees);
+  }
+
+  /**
+   * Adds the restaurant to the grid or moves it to its new cell if it is already indexed.
+   * @param restaurantEntity restaurant with a non null id and position
+   */
+  public synchronized void upsert(RestaurantEntity restaurantEntity) {
+    if (restaurantEntity.getId() == null || restaurantEntity.getLatitude() == null
+        || restaurantEntity.getLongitude() == null) {
+      return;
+    }
+    remove(restaurantEntity.getId());
+    long cellId = cellId(latitudeIndex(restaurantEntity.getLatitude()),
+        longitudeIndex(restaurantEntity.getLongitude()));
+    cells.computeIfAbsent(cellId, id -> new ConcurrentHashMap<>())
+        .put(restaurantEntity.getId(), restaurantEntity);
+    cellOfRestaurant.put(restaurantEntity.getId(), cellId);
+  }
+
+  /**
+   * Drops the restaurant with the given (Mongo) id from the grid, if present.
+   * @param id id of the restaurant document
+   */
+  public synchronized void remove(String id) {
+    Long cellId = cellOfRestaurant.remove(id);
+    if (cellId == null) {
+      return;
+    }
+    Map<String, RestaurantEntity> cell = cells.get(cellId);
+    if (cell != null) {
+      cell.remove(id);
+      if (cell.isEmpty()) {
+        cells.remove(cellId);
+      }
+    }
+  }
+
+  public int size() {
+    return cellOfRestaurant.size();
+  }
+
+  /**
+   * Get the restaurants in every cell that overlaps the square around the given point.
+   * The result is a superset of the restaurants within {@code radiusInKms}; callers are
+   * expected to apply the exact distance check themselves.
+   * @param latitude latitude of the centre of the search
+   * @param longitude longitude of the centre of the search
+   * @param radiusInKms search radius
+   * @return candidate restaurants, in no particular order
+   */
+  public List<RestaurantEntity> findCandidates(double latitude, double longitude,
+      double radiusInKms) {
+    double latitudeDelta = radiusInKms / KM_PER_DEGREE_LATITUDE;
+    int minLatitudeIndex = latitudeIndex(Math.max(-90, latitude - latitudeDelta));
+    int maxLatitudeIndex = latitudeIndex(Math.min(90, latitude + latitudeDelta));
+
+    // A degree of longitude shrinks towards the poles, so widen the box using the latitude
+    // of the box edge that is furthest from the equator.
+    double widestLatitude = Math.min(90, Math.abs(latitude) + latitudeDelta);
+    double cosine = Math.cos(Math.toRadians(widestLatitude));
+    double longitudeDelta = cosine <= 1e-6
+        ? 180 : radiusInKms / (KM_PER_DEGREE_LATITUDE * cosine);
+
+    int minLongitudeIndex;
+    int longitudeSpan;
+    if (2 * longitudeDelta + cellSizeInDegrees >= 360) {
+      minLongitudeIndex = 0;
+      longitudeSpan = longitudeCells;
+    } else {
+      minLongitudeIndex = longitudeIndex(longitude - longitudeDelta);
+      int maxLongitudeIndex = longitudeIndex(longitude + longitudeDelta);
+      longitudeSpan = Math.floorMod(maxLongitudeIndex - minLongitudeIndex, longitudeCells) + 1;
+    }
+
+    List<RestaurantEntity> candidates = new ArrayList<>();
+    for (int latIndex = minLatitudeIndex; latIndex <= maxLatitudeIndex; latIndex++) {
+      for (int offset = 0; offset < longitudeSpan; offset++) {
+        int lonIndex = (minLongitudeIndex + offset) % longitudeCells;
+        Map<String, RestaurantEntity> cell = cells.get(cellId(latIndex, lonIndex));
+        if (cell != null) {
+          candidates.addAll(cell.values());
+        }
+      }
+    }
+    return candidates;
+  }
+
+  private int latitudeIndex(double latitude) {
+    return Math.min(latitudeCells - 1, (int) Math.floor((latitude + 90) / cellSizeInDegrees));
+  }
+
+  private int longitudeIndex(double longitude) {
+    int index = (int) Math.floor((longitude + 180) / cellSizeInDegrees);
+    return Math.floorMod(index, longitudeCells);
+  }
+
+  private long cellId(int latitudeIndex, int longitudeIndex) {
+    return (long) latitudeIndex * longitudeCells + longitudeIndex;
+  }
+}
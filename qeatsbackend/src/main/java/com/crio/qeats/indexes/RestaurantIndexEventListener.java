@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.cache.RestaurantCatalog;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.Collections;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the restaurant indexes, both the in-memory ones and the GeoJSON {@code location}
+ * field behind the 2dsphere index, and the {@link RestaurantCatalog} in step with writes made
+ * through Spring Data.
+ */
+@Component
+public class RestaurantIndexEventListener extends AbstractMongoEventListener<RestaurantEntity> {
+
+  @Autowired(required = false)
+  private RestaurantSpatialIndex restaurantSpatialIndex;
+
+  @Autowired(required = false)
+  private RestaurantSearchIndex restaurantSearchIndex;
+
+  @Autowired
+  private RestaurantCatalog restaurantCatalog;
+
+  @Autowired
+  private RestaurantIndexLoader restaurantIndexLoader;
+
+  @Override
+  public void onBeforeConvert(BeforeConvertEvent<RestaurantEntity> event) {
+    RestaurantEntity restaurantEntity = event.getSource();
+    if (restaurantEntity.getLatitude() != null && restaurantEntity.getLongitude() != null) {
+      restaurantEntity.setLocation(
+          new GeoJsonPoint(restaurantEntity.getLongitude(), restaurantEntity.getLatitude()));
+    }
+  }
+
+  @Override
+  public void onAfterSave(AfterSaveEvent<RestaurantEntity> event) {
+    restaurantCatalog.putAll(Collections.singletonList(event.getSource()));
+    if (restaurantSpatialIndex != null) {
+      restaurantSpatialIndex.upsert(event.getSource());
+    }
+    if (restaurantSearchIndex != null) {
+      restaurantSearchIndex.upsertRestaurant(event.getSource());
+    }
+  }
+
+  @Override
+  public void onAfterDelete(AfterDeleteEvent<RestaurantEntity> event) {
+    Document document = event.getSource();
+    Object id = document == null ? null : document.get("_id");
+    if (id instanceof String || id instanceof ObjectId) {
+      restaurantCatalog.evictByDocumentId(id.toString());
+      if (restaurantSpatialIndex != null) {
+        restaurantSpatialIndex.remove(id.toString());
+      }
+      if (restaurantSearchIndex != null) {
+        restaurantSearchIndex.removeRestaurant(id.toString());
+      }
+    } else {
+      // Deleted by an arbitrary query, we can't tell which restaurants went away.
+      restaurantCatalog.evictAll();
+      restaurantIndexLoader.requestRebuild();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.MenuRepository;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds every enabled process local index (spatial, search, item and suggestion) from one
+ * snapshot of the restaurants and menus collections, so the collections are read once per
+ * rebuild and the indexes share the same entities.
+ *   - Built once the application is ready.
+ *   - Rebuilt every {@code qeats.indexes.refresh-interval-ms} to pick up writes made outside
+ *     this process (eg. mongorestore), and in the background on {@link #requestRebuild()}.
+ *   - Writes made through Spring Data while a rebuild runs are replayed on the rebuilt indexes
+ *     (see {@link SwappableIndex}).
+ */
+@Component
+@Log4j2
+public class RestaurantIndexLoader {
+
+  @Autowired
+  private RestaurantRepository restaurantRepository;
+
+  @Autowired
+  private MenuRepository menuRepository;
+
+  @Autowired(required = false)
+  private RestaurantSpatialIndex restaurantSpatialIndex;
+
+  @Autowired(required = false)
+  private RestaurantSearchIndex restaurantSearchIndex;
+
+  @Autowired(required = false)
+  private ItemRestaurantIndex itemRestaurantIndex;
+
+  @Autowired(required = false)
+  private SuggestionIndex suggestionIndex;
+
+  private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("index-rebuild-%d").setDaemon(true).build());
+  private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+  @PreDestroy
+  public void shutdown() {
+    rebuildExecutor.shutdownNow();
+  }
+
+  /**
+   * Loads the restaurants and menus the enabled indexes need and rebuilds them all from that.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${qeats.indexes.refresh-interval-ms:300000}",
+      fixedDelayString = "${qeats.indexes.refresh-interval-ms:300000}")
+  public synchronized void rebuild() {
+    boolean needsRestaurants = restaurantSpatialIndex != null || restaurantSearchIndex != null
+        || suggestionIndex != null;
+    boolean needsMenus = restaurantSearchIndex != null || itemRestaurantIndex != null
+        || suggestionIndex != null;
+    if (!needsRestaurants && !needsMenus) {
+      return;
+    }
+
+    long startTime = System.currentTimeMillis();
+    // Before reading the collections, the snapshot may or may not include writes made from now.
+    if (restaurantSpatialIndex != null) {
+      restaurantSpatialIndex.beginRebuild();
+    }
+    if (restaurantSearchIndex != null) {
+      restaurantSearchIndex.beginRebuild();
+    }
+    if (itemRestaurantIndex != null) {
+      itemRestaurantIndex.beginRebuild();
+    }
+    try {
+      List<RestaurantEntity> restaurantEntities =
+          needsRestaurants ? restaurantRepository.findAll() : new ArrayList<>();
+      List<MenuEntity> menuEntities = needsMenus ? menuRepository.findAll() : new ArrayList<>();
+      log.info("Loaded {} restaurants and {} menus to index in {} ms", restaurantEntities.size(),
+          menuEntities.size(), System.currentTimeMillis() - startTime);
+
+      if (restaurantSpatialIndex != null) {
+        restaurantSpatialIndex.rebuild(restaurantEntities);
+      }
+      if (restaurantSearchIndex != null) {
+        restaurantSearchIndex.rebuild(restaurantEntities, menuEntities);
+      }
+      if (itemRestaurantIndex != null) {
+        itemRestaurantIndex.rebuild(menuEntities);
+      }
+      if (suggestionIndex != null) {
+        suggestionIndex.rebuild(restaurantEntities, menuEntities);
+      }
+    } catch (RuntimeException e) {
+      if (restaurantSpatialIndex != null) {
+        restaurantSpatialIndex.cancelRebuild();
+      }
+      if (restaurantSearchIndex != null) {
+        restaurantSearchIndex.cancelRebuild();
+      }
+      if (itemRestaurantIndex != null) {
+        itemRestaurantIndex.cancelRebuild();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Rebuilds the indexes on a background thread, eg. after a delete by query that can't be
+   * applied to them document by document. Until then they still return what was deleted.
+   * Requests made before the rebuild starts are served by that one rebuild.
+   */
+  public void requestRebuild() {
+    if (!rebuildRequested.compareAndSet(false, true)) {
+      return;
+    }
+    rebuildExecutor.execute(() -> {
+      rebuildRequested.set(false);
+      try {
+        rebuild();
+      } catch (RuntimeException e) {
+        log.error("Unable to rebuild the restaurant indexes", e);
+      }
+    });
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.indexes.RestaurantTokenIndex.Field;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process local inverted index over restaurant names and attributes and the names and
+ * attributes of the items on their menus, used instead of Mongo regex queries for search.
+ *   - Built and rebuilt by {@link RestaurantIndexLoader}.
+ *   - Kept current through the Mongo lifecycle events of restaurants and menus.
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(value = "qeats.search-index.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class RestaurantSearchIndex {
+
+  private final SwappableIndex<RestaurantTokenIndex> tokenIndex = new SwappableIndex<>();
+
+  public boolean isReady() {
+    return tokenIndex.get() != null;
+  }
+
+  /**
+   * Get the restaurants matching the search query in the given field.
+   * @return matches, still to be filtered by distance and opening hours
+   * @throws IllegalStateException if the index has not been built yet
+   */
+  public List<RestaurantEntity> search(Field field, String searchString) {
+    RestaurantTokenIndex index = tokenIndex.get();
+    if (index == null) {
+      throw new IllegalStateException("Restaurant search index is not built yet");
+    }
+    return index.search(field, searchString);
+  }
+
+  public void beginRebuild() {
+    tokenIndex.beginRebuild();
+  }
+
+  /**
+   * Indexes the given restaurants and menus into a fresh index and swaps it in.
+   * Readers keep using the previous index until the new one is complete.
+   */
+  public void rebuild(List<RestaurantEntity> restaurantEntities, List<MenuEntity> menuEntities) {
+    long startTime = System.currentTimeMillis();
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      index.upsertRestaurant(restaurantEntity);
+    }
+    for (MenuEntity menuEntity : menuEntities) {
+      index.upsertMenu(menuEntity);
+    }
+    tokenIndex.finishRebuild(index);
+    log.info("Built restaurant search index with {} restaurants in {} ms", index.size(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  public void cancelRebuild() {
+    tokenIndex.cancelRebuild();
+  }
+
+  public void upsertRestaurant(RestaurantEntity restaurantEntity) {
+    tokenIndex.write(index -> index.upsertRestaurant(restaurantEntity));
+  }
+
+  public void removeRestaurant(String id) {
+    tokenIndex.write(index -> index.removeRestaurant(id));
+  }
+
+  public void upsertMenu(MenuEntity menuEntity) {
+    tokenIndex.write(index -> index.upsertMenu(menuEntity));
+  }
+
+  public void removeMenu(String id) {
+    tokenIndex.write(index -> index.removeMenu(id));
+  }
+}
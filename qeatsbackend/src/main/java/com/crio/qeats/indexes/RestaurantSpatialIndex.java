@@ -0,0 +1,82 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process local spatial index of every restaurant, used instead of a full collection scan when
+ * looking for restaurants close to a location.
+ *   - Built and rebuilt by {@link RestaurantIndexLoader}.
+ *   - Kept current through the Mongo lifecycle events of {@link RestaurantEntity}.
+ *   - Not created for the mongo-geo repository service, which asks Mongo's 2dsphere index.
+ */
+@Component
+@Log4j2
+@ConditionalOnExpression("${qeats.spatial-index.enabled:true}"
+    + " and '${qeats.restaurant-repository-service:default}' == 'default'")
+public class RestaurantSpatialIndex {
+
+  @Value("${qeats.spatial-index.cell-size-in-degrees:0.02}")
+  private double cellSizeInDegrees;
+
+  private final SwappableIndex<RestaurantGridIndex> gridIndex = new SwappableIndex<>();
+
+  public boolean isReady() {
+    return gridIndex.get() != null;
+  }
+
+  /**
+   * Get the restaurants that may lie within the given radius of a location.
+   * @return candidates for the exact distance check; a superset of the restaurants in range
+   * @throws IllegalStateException if the index has not been built yet
+   */
+  public List<RestaurantEntity> findCandidates(Double latitude, Double longitude,
+      Double radiusInKms) {
+    RestaurantGridIndex index = gridIndex.get();
+    if (index == null) {
+      throw new IllegalStateException("Restaurant spatial index is not built yet");
+    }
+    return index.findCandidates(latitude, longitude, radiusInKms);
+  }
+
+  public void beginRebuild() {
+    gridIndex.beginRebuild();
+  }
+
+  /**
+   * Builds a fresh grid of the given restaurants and swaps it in.
+   * Readers keep using the previous grid until the new one is complete.
+   */
+  public void rebuild(List<RestaurantEntity> restaurantEntities) {
+    long startTime = System.currentTimeMillis();
+    RestaurantGridIndex index = new RestaurantGridIndex(cellSizeInDegrees);
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      index.upsert(restaurantEntity);
+    }
+    gridIndex.finishRebuild(index);
+    log.info("Built restaurant spatial index with {} restaurants in {} ms", index.size(),
+        System.currentTimeMillis() - startTime);
+  }
+
+  public void cancelRebuild() {
+    gridIndex.cancelRebuild();
+  }
+
+  public void upsert(RestaurantEntity restaurantEntity) {
+    gridIndex.write(index -> index.upsert(restaurantEntity));
+  }
+
+  public void remove(String id) {
+    gridIndex.write(index -> index.remove(id));
+  }
+}
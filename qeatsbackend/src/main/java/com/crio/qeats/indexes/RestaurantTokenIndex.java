@@ -0,0 +1,284 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from normalized tokens (see {@link SearchTokenizer}) to restaurants, one
+ * posting map per searchable field.
+ *   - NAME and ATTRIBUTES come from the restaurant documents, their postings hold
+ *     restaurantIds.
+ *   - ITEM_NAME and ITEM_ATTRIBUTES come from the items embedded in the restaurant's menu,
+ *     their postings hold the items, so that every word of a search must match the same item.
+ * Like the regex queries of {@code qeats.search-backend=regex}, a query token matches the
+ * tokens containing it ("yar" finds "Adyar"), found through a {@link TrigramIndex} per field.
+ * Every query token must match, except in ITEM_NAME where any of them may ("chicken dosa"
+ * finds restaurants serving either). Unlike them, the words of a query match the words of a
+ * name in any order, and accents and punctuation are ignored.
+ * In NAME and ITEM_NAME a query token also matches the tokens a typo or two away from it,
+ * so "briyani" finds "biryani" and the other way round.
+ */
+public class RestaurantTokenIndex {
+
+  public enum Field {
+    NAME, ATTRIBUTES, ITEM_NAME, ITEM_ATTRIBUTES
+  }
+
+  private static final Field[] RESTAURANT_FIELDS = {Field.NAME, Field.ATTRIBUTES};
+  private static final Field[] MENU_FIELDS = {Field.ITEM_NAME, Field.ITEM_ATTRIBUTES};
+  private static final Set<Field> FUZZY_FIELDS = EnumSet.of(Field.NAME, Field.ITEM_NAME);
+  private static final Set<Field> ANY_TOKEN_FIELDS = EnumSet.of(Field.ITEM_NAME);
+  // Separates the restaurantId from the position of the item on the menu in item postings.
+  private static final char ITEM_SEPARATOR = '\u0000';
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // field -> token -> restaurantIds, or restaurantId + ITEM_SEPARATOR + position for items.
+  private final Map<Field, Map<String, Set<String>>> postings = new EnumMap<>(Field.class);
+  // field -> trigrams of the tokens in its postings.
+  private final Map<Field, TrigramIndex> trigramIndexes = new EnumMap<>(Field.class);
+  // restaurantId -> field -> posted id -> tokens, used to unindex the previous version of a
+  // document.
+  private final Map<String, Map<Field, Map<String, Set<String>>>> tokensOfRestaurant =
+      new HashMap<>();
+  private final Map<String, RestaurantEntity> restaurants = new HashMap<>();
+  // Mongo document id -> restaurantId, delete events only carry the former.
+  private final Map<String, String> restaurantIdOfRestaurantDocument = new HashMap<>();
+  private final Map<String, String> restaurantIdOfMenuDocument = new HashMap<>();
+
+  public RestaurantTokenIndex() {
+    for (Field field : Field.values()) {
+      postings.put(field, new HashMap<>());
+      trigramIndexes.put(field, new TrigramIndex());
+    }
+  }
+
+  /**
+   * Indexes the name and attributes of the restaurant, replacing its previous version.
+   * @param restaurantEntity restaurant with a non null restaurantId
+   */
+  public void upsertRestaurant(RestaurantEntity restaurantEntity) {
+    String restaurantId = restaurantEntity.getRestaurantId();
+    if (restaurantId == null) {
+      return;
+    }
+    Map<Field, Map<String, Set<String>>> tokens = new EnumMap<>(Field.class);
+    tokens.put(Field.NAME, Collections.singletonMap(restaurantId,
+        new HashSet<>(SearchTokenizer.tokenize(restaurantEntity.getName()))));
+    tokens.put(Field.ATTRIBUTES, Collections.singletonMap(restaurantId,
+        SearchTokenizer.tokenize(restaurantEntity.getAttributes())));
+
+    lock.writeLock().lock();
+    try {
+      restaurants.put(restaurantId, restaurantEntity);
+      if (restaurantEntity.getId() != null) {
+        restaurantIdOfRestaurantDocument.put(restaurantEntity.getId(), restaurantId);
+      }
+      replaceTokens(restaurantId, RESTAURANT_FIELDS, tokens);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Indexes the names and attributes of the items on the menu, replacing the previous version
+   * of the menu of the same restaurant.
+   * @param menuEntity menu with a non null restaurantId
+   */
+  public void upsertMenu(MenuEntity menuEntity) {
+    String restaurantId = menuEntity.getRestaurantId();
+    if (restaurantId == null) {
+      return;
+    }
+    Map<String, Set<String>> itemNameTokens = new HashMap<>();
+    Map<String, Set<String>> itemAttributeTokens = new HashMap<>();
+    List<Item> items = menuEntity.getItems();
+    for (int i = 0; i < items.size(); i++) {
+      String itemKey = restaurantId + ITEM_SEPARATOR + i;
+      itemNameTokens.put(itemKey, new HashSet<>(SearchTokenizer.tokenize(items.get(i).getName())));
+      itemAttributeTokens.put(itemKey, SearchTokenizer.tokenize(items.get(i).getAttributes()));
+    }
+    Map<Field, Map<String, Set<String>>> tokens = new EnumMap<>(Field.class);
+    tokens.put(Field.ITEM_NAME, itemNameTokens);
+    tokens.put(Field.ITEM_ATTRIBUTES, itemAttributeTokens);
+
+    lock.writeLock().lock();
+    try {
+      if (menuEntity.getId() != null) {
+        restaurantIdOfMenuDocument.put(menuEntity.getId(), restaurantId);
+      }
+      replaceTokens(restaurantId, MENU_FIELDS, tokens);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the restaurant stored under the given (Mongo) document id, if present.
+   * Its menu stays indexed, but is no longer returned by searches.
+   */
+  public void removeRestaurant(String documentId) {
+    lock.writeLock().lock();
+    try {
+      String restaurantId = restaurantIdOfRestaurantDocument.remove(documentId);
+      if (restaurantId != null) {
+        restaurants.remove(restaurantId);
+        replaceTokens(restaurantId, RESTAURANT_FIELDS, Collections.emptyMap());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Drops the menu stored under the given (Mongo) document id, if present.
+   */
+  public void removeMenu(String documentId) {
+    lock.writeLock().lock();
+    try {
+      String restaurantId = restaurantIdOfMenuDocument.remove(documentId);
+      if (restaurantId != null) {
+        replaceTokens(restaurantId, MENU_FIELDS, Collections.emptyMap());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return restaurants.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Get the restaurants matching the query in the given field, ordered by restaurantId.
+   * @param field field to search
+   * @param query search text, tokenized like the indexed text
+   * @return matching restaurants, empty if the query has no tokens
+   */
+  public List<RestaurantEntity> search(Field field, String query) {
+    List<String> queryTokens = SearchTokenizer.tokenize(query);
+    if (queryTokens.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    lock.readLock().lock();
+    try {
+      Map<String, Set<String>> fieldPostings = postings.get(field);
+      TrigramIndex trigramIndex = trigramIndexes.get(field);
+      boolean anyToken = ANY_TOKEN_FIELDS.contains(field);
+      Set<String> matches = null;
+      for (String queryToken : queryTokens) {
+        Set<String> matchingTokens = trigramIndex.findContaining(queryToken);
+        if (FUZZY_FIELDS.contains(field)) {
+          matchingTokens.addAll(trigramIndex.findSimilar(queryToken));
+        }
+        Set<String> tokenMatches = new HashSet<>();
+        for (String token : matchingTokens) {
+          tokenMatches.addAll(fieldPostings.get(token));
+        }
+        if (matches == null) {
+          matches = tokenMatches;
+        } else if (anyToken) {
+          matches.addAll(tokenMatches);
+        } else {
+          matches.retainAll(tokenMatches);
+        }
+        if (matches.isEmpty() && !anyToken) {
+          return new ArrayList<>();
+        }
+      }
+
+      Set<String> restaurantIds = new TreeSet<>();
+      for (String match : matches) {
+        int separator = match.indexOf(ITEM_SEPARATOR);
+        restaurantIds.add(separator < 0 ? match : match.substring(0, separator));
+      }
+      List<RestaurantEntity> restaurantEntities = new ArrayList<>();
+      for (String restaurantId : restaurantIds) {
+        RestaurantEntity restaurantEntity = restaurants.get(restaurantId);
+        if (restaurantEntity != null) {
+          restaurantEntities.add(restaurantEntity);
+        }
+      }
+      return restaurantEntities;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Must hold the write lock.
+  private void replaceTokens(String restaurantId, Field[] fields,
+      Map<Field, Map<String, Set<String>>> newTokens) {
+    Map<Field, Map<String, Set<String>>> indexedTokens =
+        tokensOfRestaurant.computeIfAbsent(restaurantId, id -> new EnumMap<>(Field.class));
+    for (Field field : fields) {
+      Map<String, Set<String>> oldTokens =
+          indexedTokens.getOrDefault(field, Collections.emptyMap());
+      Map<String, Set<String>> tokens = newTokens.getOrDefault(field, Collections.emptyMap());
+      for (Map.Entry<String, Set<String>> old : oldTokens.entrySet()) {
+        Set<String> kept = tokens.getOrDefault(old.getKey(), Collections.emptySet());
+        for (String token : old.getValue()) {
+          if (!kept.contains(token)) {
+            unpost(field, token, old.getKey());
+          }
+        }
+      }
+      for (Map.Entry<String, Set<String>> entry : tokens.entrySet()) {
+        for (String token : entry.getValue()) {
+          post(field, token, entry.getKey());
+        }
+      }
+      if (tokens.isEmpty()) {
+        indexedTokens.remove(field);
+      } else {
+        indexedTokens.put(field, tokens);
+      }
+    }
+    if (indexedTokens.isEmpty()) {
+      tokensOfRestaurant.remove(restaurantId);
+    }
+  }
+
+  private void post(Field field, String token, String id) {
+    Set<String> ids = postings.get(field).get(token);
+    if (ids == null) {
+      ids = new HashSet<>();
+      postings.get(field).put(token, ids);
+      trigramIndexes.get(field).add(token);
+    }
+    ids.add(id);
+  }
+
+  private void unpost(Field field, String token, String id) {
+    Set<String> ids = postings.get(field).get(token);
+    ids.remove(id);
+    if (ids.isEmpty()) {
+      postings.get(field).remove(token);
+      trigramIndexes.get(field).remove(token);
+    }
+  }
+}
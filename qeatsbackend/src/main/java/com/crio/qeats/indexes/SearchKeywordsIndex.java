@@ -0,0 +1,179 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.models.ItemEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.models.SearchKeywords;
+import java.util.List;
+import java.util.regex.Pattern;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mongo side of the keyword search backend ({@code qeats.search-backend=keywords}), the
+ * alternative to regex queries over the raw name and attributes. Only registered when that
+ * backend is selected, so the other backends neither write nor index keywords.
+ *   - Restaurants and items carry their {@link SearchKeywords}, set on every save.
+ *   - The multikey indexes are created once the application is ready. Documents loaded without
+ *     keywords (eg. by the setup scripts) are not searchable until {@link #backfill()} is run
+ *     once; startup only warns about them, it doesn't rewrite the collections.
+ *   - A query matches when every query token is a prefix of one of the document's keywords,
+ *     or for item names when any of them is. Keywords are lower case letters and digits only,
+ *     so the anchored prefix regexes are answered from index bounds and user input never
+ *     reaches the regex engine as a pattern.
+ *   - Unlike the regex backend and {@link RestaurantTokenIndex}, words only match from their
+ *     start: "ady" finds "Adyar", "yar" doesn't. That is the price of the index bounds, and why
+ *     this backend has to be asked for.
+ */
+@Component
+@ConditionalOnProperty(value = "qeats.search-backend", havingValue = "keywords")
+@Log4j2
+public class SearchKeywordsIndex extends AbstractMongoEventListener<Object> {
+
+  private static final int BACKFILL_BATCH_SIZE = 1000;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Override
+  public void onBeforeConvert(BeforeConvertEvent<Object> event) {
+    Object source = event.getSource();
+    if (source instanceof RestaurantEntity) {
+      RestaurantEntity restaurantEntity = (RestaurantEntity) source;
+      restaurantEntity.setKeywords(
+          SearchKeywords.of(restaurantEntity.getName(), restaurantEntity.getAttributes()));
+    } else if (source instanceof ItemEntity) {
+      ItemEntity itemEntity = (ItemEntity) source;
+      itemEntity.setKeywords(SearchKeywords.of(itemEntity.getName(), itemEntity.getAttributes()));
+    }
+  }
+
+  /**
+   * Creates the keyword indexes, and warns if some documents have no keywords to search.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void ensureKeywords() {
+    ensureIndexes(mongoTemplate);
+    for (Class<?> entityClass : new Class<?>[] {RestaurantEntity.class, ItemEntity.class}) {
+      if (mongoTemplate.exists(missingKeywords(), entityClass)) {
+        log.warn("Some {} documents have no search keywords and can't be found until they are "
+            + "backfilled", mongoTemplate.getCollectionName(entityClass));
+      }
+    }
+  }
+
+  /**
+   * Sets the keywords of the restaurants and items that have none, eg. after loading them
+   * outside the application. Meant to be run once, not on every start.
+   */
+  public void backfill() {
+    long startTime = System.currentTimeMillis();
+    int restaurants = backfill(RestaurantEntity.class);
+    int items = backfill(ItemEntity.class);
+    log.info("Backfilled the search keywords of {} restaurants and {} items in {} ms",
+        restaurants, items, System.currentTimeMillis() - startTime);
+  }
+
+  public static void ensureIndexes(MongoTemplate mongoTemplate) {
+    for (Class<?> entityClass : new Class<?>[] {RestaurantEntity.class, ItemEntity.class}) {
+      mongoTemplate.indexOps(entityClass)
+          .ensureIndex(new Index().on(SearchKeywords.NAME, Direction.ASC));
+      mongoTemplate.indexOps(entityClass)
+          .ensureIndex(new Index().on(SearchKeywords.ATTRIBUTES, Direction.ASC));
+    }
+  }
+
+  /**
+   * Get the query for the documents whose keywords in the given field match the search text.
+   * @param field {@link SearchKeywords#NAME} or {@link SearchKeywords#ATTRIBUTES}
+   * @return the query, or null if the search text has no tokens and so matches nothing
+   */
+  public static Query matching(String field, String searchString) {
+    Pattern[] prefixes = prefixes(searchString);
+    return prefixes == null ? null : new Query(Criteria.where(field).all((Object[]) prefixes));
+  }
+
+  /**
+   * Get the query for the documents having a keyword in the given field that matches any of
+   * the words of the search text.
+   * @return the query, or null if the search text has no tokens and so matches nothing
+   */
+  public static Query matchingAnyWord(String field, String searchString) {
+    Pattern[] prefixes = prefixes(searchString);
+    return prefixes == null ? null : new Query(Criteria.where(field).in((Object[]) prefixes));
+  }
+
+  private static Pattern[] prefixes(String searchString) {
+    List<String> tokens = SearchTokenizer.tokenize(searchString);
+    if (tokens.isEmpty()) {
+      return null;
+    }
+    Pattern[] prefixes = new Pattern[tokens.size()];
+    for (int i = 0; i < prefixes.length; i++) {
+      prefixes[i] = Pattern.compile("^" + tokens.get(i));
+    }
+    return prefixes;
+  }
+
+  private static Query missingKeywords() {
+    return new Query(Criteria.where("keywords").exists(false));
+  }
+
+  private int backfill(Class<?> entityClass) {
+    Query missingKeywords = missingKeywords();
+    missingKeywords.fields().include("name").include("attributes");
+
+    int updated = 0;
+    BulkOperations bulkOperations = null;
+    try (CloseableIterator<?> documents = mongoTemplate.stream(missingKeywords, entityClass)) {
+      while (documents.hasNext()) {
+        Object document = documents.next();
+        String id;
+        SearchKeywords keywords;
+        if (document instanceof RestaurantEntity) {
+          RestaurantEntity restaurantEntity = (RestaurantEntity) document;
+          id = restaurantEntity.getId();
+          keywords = SearchKeywords.of(restaurantEntity.getName(),
+              restaurantEntity.getAttributes());
+        } else {
+          ItemEntity itemEntity = (ItemEntity) document;
+          id = itemEntity.getId();
+          keywords = SearchKeywords.of(itemEntity.getName(), itemEntity.getAttributes());
+        }
+        if (bulkOperations == null) {
+          bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, entityClass);
+        }
+        bulkOperations.updateOne(new Query(Criteria.where("_id").is(id)),
+            Update.update("keywords", keywords));
+        if (++updated % BACKFILL_BATCH_SIZE == 0) {
+          bulkOperations.execute();
+          bulkOperations = null;
+        }
+      }
+    }
+    if (bulkOperations != null) {
+      bulkOperations.execute();
+    }
+    return updated;
+  }
+}
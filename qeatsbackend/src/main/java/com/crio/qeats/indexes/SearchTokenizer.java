@@ -0,0 +1,69 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.utils.TextNormalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns names, attributes and search queries into the tokens the search index is keyed by:
+ * text is put in its search form (see {@link TextNormalizer#searchForm}) and split on anything
+ * that isn't a letter or digit. "Café Coffee-Day" gives [cafe, coffee, day].
+ */
+public final class SearchTokenizer {
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private SearchTokenizer() {
+  }
+
+  /**
+   * Get the distinct tokens of the text, in the order they first appear.
+   * @return tokens, empty for null or blank text
+   */
+  public static List<String> tokenize(String text) {
+    Set<String> tokens = new LinkedHashSet<>();
+    addTokens(text, tokens);
+    return new ArrayList<>(tokens);
+  }
+
+  /**
+   * Get the distinct tokens of all the given texts.
+   */
+  public static Set<String> tokenize(Collection<String> texts) {
+    Set<String> tokens = new LinkedHashSet<>();
+    if (texts != null) {
+      for (String text : texts) {
+        addTokens(text, tokens);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Get the text in the normalized form tokens are taken from, eg. for exact comparisons.
+   */
+  public static String normalize(String text) {
+    return String.join(" ", tokenize(text));
+  }
+
+  private static void addTokens(String text, Set<String> tokens) {
+    if (text == null) {
+      return;
+    }
+    for (String token : SEPARATORS.split(TextNormalizer.searchForm(text))) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Suggestion;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.TextNormalizer;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process local {@link SuggestionTrie} of restaurant names, cuisines and dish names, used to
+ * complete what the user is typing without running a search.
+ * Suggestions are ranked by frequency: how many restaurants carry the name or cuisine, or
+ * list the dish.
+ *   - Built and rebuilt by {@link RestaurantIndexLoader}.
+ *   - The trie being immutable, writes show up with the next rebuild.
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(value = "qeats.suggest.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class SuggestionIndex {
+
+  @Value("${qeats.suggest.top-n:10}")
+  private int topN;
+
+  private volatile SuggestionTrie suggestionTrie;
+
+  public boolean isReady() {
+    return suggestionTrie != null;
+  }
+
+  /**
+   * Get the most frequent suggestions completing the prefix.
+   * @param limit maximum number of suggestions, at most {@code qeats.suggest.top-n} are kept
+   * @return suggestions best first, empty until the index is built
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    SuggestionTrie trie = suggestionTrie;
+    if (trie == null) {
+      return new ArrayList<>();
+    }
+    return trie.suggest(prefix, limit);
+  }
+
+  /**
+   * Builds a fresh trie of the given restaurants and menus and swaps it in.
+   */
+  public void rebuild(List<RestaurantEntity> restaurantEntities, List<MenuEntity> menuEntities) {
+    long startTime = System.currentTimeMillis();
+    SuggestionTrie.Builder builder = new SuggestionTrie.Builder();
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      builder.add(TextNormalizer.displayName(restaurantEntity.getName()),
+          Suggestion.Type.RESTAURANT);
+      for (String attribute : restaurantEntity.getAttributes()) {
+        builder.add(attribute, Suggestion.Type.CUISINE);
+      }
+    }
+    for (MenuEntity menuEntity : menuEntities) {
+      for (Item item : menuEntity.getItems()) {
+        builder.add(item.getName(), Suggestion.Type.ITEM);
+      }
+    }
+    SuggestionTrie trie = builder.build(topN);
+    suggestionTrie = trie;
+    log.info("Built suggestion trie with {} suggestions in {} ms", trie.size(),
+        System.currentTimeMillis() - startTime);
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import com.crio.qeats.dto.Suggestion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable radix trie (single child chains collapsed into one edge) from normalized text to
+ * suggestions, with the top suggestions under every node computed when it is built, so that a
+ * lookup is a walk down the prefix and no search below it.
+ *   - A suggestion is reachable from the start of each of its words, so "biry" completes
+ *     "Hyderabadi Biryani House" as well as "Biryani Blues".
+ *   - Suggestions are ranked by frequency, the number of times they were added, then
+ *     alphabetically. It is not a measure of popularity: nothing about orders or searches
+ *     goes into it.
+ */
+public class SuggestionTrie {
+
+  private final Suggestion[] suggestions;
+  private final Node root;
+
+  private SuggestionTrie(Suggestion[] suggestions, Node root) {
+    this.suggestions = suggestions;
+    this.root = root;
+  }
+
+  /**
+   * Get the top suggestions starting with the prefix, at word boundaries.
+   * @param prefix typed text, normalized like the suggestions (case, accents, punctuation)
+   * @param limit maximum number of suggestions, capped by the top-N the trie was built with
+   * @return suggestions best first, empty if the prefix has no tokens or matches nothing
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    String key = SearchTokenizer.normalize(prefix);
+    List<Suggestion> result = new ArrayList<>();
+    if (key.isEmpty()) {
+      return result;
+    }
+
+    Node node = root;
+    int position = 0;
+    while (position < key.length() && node != null) {
+      Node child = node.child(key.charAt(position));
+      if (child == null) {
+        return result;
+      }
+      String label = child.label;
+      int remaining = key.length() - position;
+      if (remaining <= label.length()) {
+        node = label.startsWith(key.substring(position)) ? child : null;
+        break;
+      }
+      if (!key.startsWith(label, position)) {
+        return result;
+      }
+      position += label.length();
+      node = child;
+    }
+
+    if (node != null) {
+      for (int i = 0; i < node.top.length && i < limit; i++) {
+        result.add(suggestions[node.top[i]]);
+      }
+    }
+    return result;
+  }
+
+  public int size() {
+    return suggestions.length;
+  }
+
+  private static class Node {
+    // Edge from the parent, empty for the root.
+    final String label;
+    // Children ordered by the first character of their label, no two share it.
+    final Node[] children;
+    final char[] firstChars;
+    // Ids of the best suggestions in this subtree, best first.
+    final int[] top;
+
+    Node(String label, Node[] children, int[] top) {
+      this.label = label;
+      this.children = children;
+      this.top = top;
+      this.firstChars = new char[children.length];
+      for (int i = 0; i < children.length; i++) {
+        firstChars[i] = children[i].label.charAt(0);
+      }
+    }
+
+    Node child(char firstChar) {
+      int index = Arrays.binarySearch(firstChars, firstChar);
+      return index < 0 ? null : children[index];
+    }
+  }
+
+  /**
+   * Collects suggestions, adding the same (text, type) again increases its frequency.
+   */
+  public static class Builder {
+
+    private final Map<String, Integer> idOfSuggestion = new HashMap<>();
+    private final List<Suggestion> suggestions = new ArrayList<>();
+    private final List<String> normalizedTexts = new ArrayList<>();
+    private final List<Integer> frequencies = new ArrayList<>();
+
+    public Builder add(String text, Suggestion.Type type) {
+      String normalizedText = SearchTokenizer.normalize(text);
+      if (normalizedText.isEmpty()) {
+        return this;
+      }
+      Integer id = idOfSuggestion.get(type + ":" + normalizedText);
+      if (id == null) {
+        idOfSuggestion.put(type + ":" + normalizedText, suggestions.size());
+        suggestions.add(new Suggestion(text.trim(), type));
+        normalizedTexts.add(normalizedText);
+        frequencies.add(1);
+      } else {
+        frequencies.set(id, frequencies.get(id) + 1);
+      }
+      return this;
+    }
+
+    /**
+     * Builds the trie.
+     * @param topN number of suggestions kept per prefix
+     */
+    public SuggestionTrie build(int topN) {
+      // Best first: higher frequency, then alphabetical.
+      Integer[] ranked = new Integer[suggestions.size()];
+      for (int i = 0; i < ranked.length; i++) {
+        ranked[i] = i;
+      }
+      Arrays.sort(ranked, Comparator.<Integer>comparingInt(id -> -frequencies.get(id))
+          .thenComparing(id -> normalizedTexts.get(id)));
+      int[] rankOf = new int[ranked.length];
+      for (int rank = 0; rank < ranked.length; rank++) {
+        rankOf[ranked[rank]] = rank;
+      }
+
+      // One key per word start of every suggestion, sorted so that subtrees are ranges.
+      List<Key> keys = new ArrayList<>();
+      for (int id = 0; id < normalizedTexts.size(); id++) {
+        String normalizedText = normalizedTexts.get(id);
+        int start = 0;
+        while (start >= 0) {
+          keys.add(new Key(normalizedText.substring(start), id));
+          int space = normalizedText.indexOf(' ', start);
+          start = space < 0 ? -1 : space + 1;
+        }
+      }
+      keys.sort(Comparator.comparing((Key key) -> key.text));
+
+      Node root = build(keys, 0, keys.size(), 0, "", rankOf, topN);
+      return new SuggestionTrie(suggestions.toArray(new Suggestion[0]), root);
+    }
+
+    // Builds the node for keys[from, to), which share their first depth characters.
+    private Node build(List<Key> keys, int from, int to, int depth, String label, int[] rankOf,
+        int topN) {
+      Set<Integer> candidates = new LinkedHashSet<>();
+      List<Node> children = new ArrayList<>();
+      int start = from;
+      while (start < to && keys.get(start).text.length() == depth) {
+        candidates.add(keys.get(start).id);
+        start++;
+      }
+      while (start < to) {
+        char firstChar = keys.get(start).text.charAt(depth);
+        int end = start + 1;
+        while (end < to && keys.get(end).text.charAt(depth) == firstChar) {
+          end++;
+        }
+        // Collapse the chain down to the first character the group's keys differ in.
+        String first = keys.get(start).text;
+        String last = keys.get(end - 1).text;
+        int childDepth = depth + 1;
+        while (childDepth < first.length() && childDepth < last.length()
+            && first.charAt(childDepth) == last.charAt(childDepth)) {
+          childDepth++;
+        }
+        Node child = build(keys, start, end, childDepth, first.substring(depth, childDepth),
+            rankOf, topN);
+        children.add(child);
+        for (int id : child.top) {
+          candidates.add(id);
+        }
+        start = end;
+      }
+
+      int[] top = candidates.stream()
+          .sorted(Comparator.comparingInt(id -> rankOf[id]))
+          .limit(topN)
+          .mapToInt(Integer::intValue)
+          .toArray();
+      return new Node(label, children.toArray(new Node[0]), top);
+    }
+  }
+
+  private static class Key {
+    final String text;
+    final int id;
+
+    Key(String text, int id) {
+      this.text = text;
+      this.id = id;
+    }
+  }
+}
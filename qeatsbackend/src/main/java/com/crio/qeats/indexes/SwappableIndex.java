@@ -0,0 +1,71 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Holds the current version of an index that is rebuilt from scratch while it is read and
+ * written.
+ *   - Readers keep using the current version until the rebuilt one is swapped in.
+ *   - Writes made between {@link #beginRebuild()} and {@link #finishRebuild} are applied to the
+ *     current version and replayed on the rebuilt one, since the data it was built from may or
+ *     may not include them. Writes must therefore be idempotent (upserts and removes).
+ */
+class SwappableIndex<T> {
+
+  private volatile T current;
+  // Writes to replay on the version being rebuilt, null while no rebuild is in progress.
+  private List<Consumer<T>> writesDuringRebuild;
+
+  /**
+   * Get the current version, null until the first rebuild finishes.
+   */
+  T get() {
+    return current;
+  }
+
+  synchronized void write(Consumer<T> write) {
+    if (current != null) {
+      write.accept(current);
+    }
+    if (writesDuringRebuild != null) {
+      writesDuringRebuild.add(write);
+    }
+  }
+
+  /**
+   * Starts queueing writes for the next version, to be called before the data it is built from
+   * is read.
+   */
+  synchronized void beginRebuild() {
+    writesDuringRebuild = new ArrayList<>();
+  }
+
+  /**
+   * Replays the writes queued since {@link #beginRebuild()} on the rebuilt version and swaps it
+   * in.
+   */
+  synchronized void finishRebuild(T rebuilt) {
+    if (writesDuringRebuild != null) {
+      for (Consumer<T> write : writesDuringRebuild) {
+        write.accept(rebuilt);
+      }
+    }
+    writesDuringRebuild = null;
+    current = rebuilt;
+  }
+
+  /**
+   * Stops queueing writes after a failed rebuild; does nothing once the rebuild finished.
+   */
+  synchronized void cancelRebuild() {
+    writesDuringRebuild = null;
+  }
+}
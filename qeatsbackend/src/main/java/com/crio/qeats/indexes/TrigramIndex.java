@@ -0,0 +1,197 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over a vocabulary of tokens, finding the tokens within a small edit distance
+ * of a (possibly misspelt) query token, eg. "briyani" for "biryani", and the tokens containing
+ * a query token, eg. "adyar" for "yar".
+ *   - Candidates are the tokens sharing enough trigrams with the query token to possibly be
+ *     within the distance, so only a handful of tokens are compared, whatever the vocabulary.
+ *   - Candidates are then verified with the optimal string alignment distance (Levenshtein
+ *     plus transposition of adjacent letters, the most common typo).
+ * Not thread safe, callers guard it like the rest of their index.
+ */
+public class TrigramIndex {
+
+  // Typos are not corrected in tokens shorter than this, too many short words are one edit
+  // apart.
+  static final int MIN_FUZZY_LENGTH = 4;
+  // From this length on two typos are corrected, one below.
+  static final int TWO_TYPOS_LENGTH = 8;
+
+  private static final int Q = 3;
+  private static final char PADDING = '\u0000';
+
+  private final Map<String, Set<String>> tokensByTrigram = new HashMap<>();
+  private final Set<String> tokens = new HashSet<>();
+
+  /**
+   * Get the number of typos (edits) corrected in a query token of the given length.
+   */
+  public static int maxDistance(int length) {
+    if (length < MIN_FUZZY_LENGTH) {
+      return 0;
+    }
+    return length < TWO_TYPOS_LENGTH ? 1 : 2;
+  }
+
+  public void add(String token) {
+    tokens.add(token);
+    for (String trigram : trigrams(token)) {
+      tokensByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(token);
+    }
+  }
+
+  public void remove(String token) {
+    tokens.remove(token);
+    for (String trigram : trigrams(token)) {
+      Set<String> tokens = tokensByTrigram.get(trigram);
+      if (tokens != null) {
+        tokens.remove(token);
+        if (tokens.isEmpty()) {
+          tokensByTrigram.remove(trigram);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the indexed tokens within {@link #maxDistance(int)} edits of the query token.
+   * @return matching tokens, including the query token itself if indexed
+   */
+  public Set<String> findSimilar(String queryToken) {
+    Set<String> similar = new LinkedHashSet<>();
+    int maxDistance = maxDistance(queryToken.length());
+    if (maxDistance == 0) {
+      return similar;
+    }
+    for (String token : candidates(queryToken, maxDistance)) {
+      if (distance(queryToken, token, maxDistance) <= maxDistance) {
+        similar.add(token);
+      }
+    }
+    return similar;
+  }
+
+  /**
+   * Get the indexed tokens containing the query token, itself included.
+   *   - From {@code Q} letters on, only the tokens having the rarest trigram of the query token
+   *     are compared.
+   *   - Shorter query tokens are compared with every token.
+   * @return matching tokens
+   */
+  public Set<String> findContaining(String queryToken) {
+    Set<String> candidates = tokens;
+    for (int i = 0; i + Q <= queryToken.length(); i++) {
+      Set<String> withTrigram = tokensByTrigram.get(queryToken.substring(i, i + Q));
+      if (withTrigram == null) {
+        return new HashSet<>();
+      }
+      if (withTrigram.size() < candidates.size()) {
+        candidates = withTrigram;
+      }
+    }
+    Set<String> containing = new HashSet<>();
+    for (String token : candidates) {
+      if (token.contains(queryToken)) {
+        containing.add(token);
+      }
+    }
+    return containing;
+  }
+
+  /**
+   * Get the indexed tokens that share enough trigrams with the query token, and are close
+   * enough in length, to possibly be within {@code maxDistance} edits of it.
+   */
+  Set<String> candidates(String queryToken, int maxDistance) {
+    List<String> queryTrigrams = trigrams(queryToken);
+    Map<String, Integer> sharedTrigrams = new HashMap<>();
+    for (String trigram : queryTrigrams) {
+      for (String token : tokensByTrigram.getOrDefault(trigram, new HashSet<>())) {
+        sharedTrigrams.merge(token, 1, Integer::sum);
+      }
+    }
+
+    // An insertion, deletion or substitution changes at most Q of the padded trigrams, a
+    // transposition of adjacent letters Q + 1.
+    int minShared = Math.max(1, queryTrigrams.size() - (Q + 1) * maxDistance);
+    Set<String> candidates = new LinkedHashSet<>();
+    for (Map.Entry<String, Integer> candidate : sharedTrigrams.entrySet()) {
+      String token = candidate.getKey();
+      if (candidate.getValue() >= minShared
+          && Math.abs(token.length() - queryToken.length()) <= maxDistance) {
+        candidates.add(token);
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Optimal string alignment distance between the two strings, or {@code maxDistance + 1} as
+   * soon as it is known to exceed {@code maxDistance}.
+   */
+  static int distance(String a, String b, int maxDistance) {
+    // Rows i - 2, i - 1 and i of the distance matrix, rotated as i advances.
+    int[] twoRowsBack = new int[b.length() + 1];
+    int[] oneRowBack = new int[b.length() + 1];
+    int[] row = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      row[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      int[] reused = twoRowsBack;
+      twoRowsBack = oneRowBack;
+      oneRowBack = row;
+      row = reused;
+      row[0] = i;
+      int rowMinimum = i;
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        row[j] = Math.min(Math.min(row[j - 1] + 1, oneRowBack[j] + 1),
+            oneRowBack[j - 1] + cost);
+        if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+            && a.charAt(i - 2) == b.charAt(j - 1)) {
+          row[j] = Math.min(row[j], twoRowsBack[j - 2] + 1);
+        }
+        rowMinimum = Math.min(rowMinimum, row[j]);
+      }
+      // Distances only grow from one row to the next (the transposition step included).
+      if (rowMinimum > maxDistance) {
+        return maxDistance + 1;
+      }
+    }
+    return Math.min(row[b.length()], maxDistance + 1);
+  }
+
+  // Trigrams of the token padded with Q - 1 characters on both sides, so that the first and
+  // last letters weigh as much as the middle ones.
+  private static List<String> trigrams(String token) {
+    StringBuilder padded = new StringBuilder();
+    for (int i = 0; i < Q - 1; i++) {
+      padded.append(PADDING);
+    }
+    padded.append(token);
+    for (int i = 0; i < Q - 1; i++) {
+      padded.append(PADDING);
+    }
+    List<String> trigrams = new ArrayList<>();
+    for (int i = 0; i + Q <= padded.length(); i++) {
+      trigrams.add(padded.substring(i, i + Q));
+    }
+    return trigrams;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.ItemEntity;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.TextNormalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps the Mongo entities to the DTOs returned by the API, field by field.
+ * Gives the same results as a default ModelMapper, null source values leave the DTO defaults
+ * in place, without building type maps by reflection for every request.
+ * Lists are copied, so DTOs never share state with entities held by the in-memory indexes.
+ * Restaurant names are returned in their display form (see {@link TextNormalizer}).
+ */
+public final class EntityMapper {
+
+  private EntityMapper() {
+  }
+
+  public static Restaurant toRestaurant(RestaurantEntity restaurantEntity) {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId(restaurantEntity.getRestaurantId());
+    restaurant.setName(TextNormalizer.displayName(restaurantEntity.getName()));
+    restaurant.setCity(restaurantEntity.getCity());
+    restaurant.setImageUrl(restaurantEntity.getImageUrl());
+    if (restaurantEntity.getLatitude() != null) {
+      restaurant.setLatitude(restaurantEntity.getLatitude());
+    }
+    if (restaurantEntity.getLongitude() != null) {
+      restaurant.setLongitude(restaurantEntity.getLongitude());
+    }
+    restaurant.setOpensAt(restaurantEntity.getOpensAt());
+    restaurant.setClosesAt(restaurantEntity.getClosesAt());
+    if (restaurantEntity.getAttributes() != null) {
+      restaurant.setAttributes(new ArrayList<>(restaurantEntity.getAttributes()));
+    }
+    return restaurant;
+  }
+
+  public static Item toItem(ItemEntity itemEntity) {
+    Item item = new Item();
+    item.setId(itemEntity.getId());
+    item.setItemId(itemEntity.getItemId());
+    item.setName(itemEntity.getName());
+    item.setImageUrl(itemEntity.getImageUrl());
+    if (itemEntity.getAttributes() != null) {
+      item.setAttributes(new ArrayList<>(itemEntity.getAttributes()));
+    }
+    if (itemEntity.getPrice() != null) {
+      item.setPrice(itemEntity.getPrice().intValue());
+    }
+    return item;
+  }
+
+  /**
+   * Get copies of the items on the menu.
+   */
+  public static List<Item> toItems(MenuEntity menuEntity) {
+    List<Item> items = new ArrayList<>();
+    if (menuEntity.getItems() == null) {
+      return items;
+    }
+    for (Item menuItem : menuEntity.getItems()) {
+      Item item = new Item();
+      item.setId(menuItem.getId());
+      item.setItemId(menuItem.getItemId());
+      item.setName(menuItem.getName());
+      item.setImageUrl(menuItem.getImageUrl());
+      item.setAttributes(new ArrayList<>(menuItem.getAttributes()));
+      item.setPrice(menuItem.getPrice());
+      items.add(item);
+    }
+    return items;
+  }
+}
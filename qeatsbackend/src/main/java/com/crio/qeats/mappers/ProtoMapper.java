@@ -0,0 +1,281 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps the API DTOs to and from the protocol buffers messages of qeats.proto, field by field,
+ * in the wire format any protoc generated client reads. Written against the protobuf runtime
+ * rather than generated classes, so the build needs no protoc.
+ * Protocol buffers have no null, so null strings and lists are left unset, which clients read
+ * as empty, and unset fields are read back as the DTO defaults.
+ */
+public final class ProtoMapper {
+
+  private static final int VARINT = WireFormat.WIRETYPE_VARINT;
+  private static final int FIXED64 = WireFormat.WIRETYPE_FIXED64;
+  private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+  // Tags (field number and wire type) of the fields of qeats.proto.
+  private static final int RESPONSE_RESTAURANTS = 1 << 3 | LENGTH_DELIMITED;
+  private static final int RESPONSE_PARTIAL = 2 << 3 | VARINT;
+  private static final int RESPONSE_NEXT_CURSOR = 3 << 3 | LENGTH_DELIMITED;
+
+  private static final int RESTAURANT_ID = 1 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_NAME = 2 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_CITY = 3 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_IMAGE_URL = 4 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_LATITUDE = 5 << 3 | FIXED64;
+  private static final int RESTAURANT_LONGITUDE = 6 << 3 | FIXED64;
+  private static final int RESTAURANT_OPENS_AT = 7 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_CLOSES_AT = 8 << 3 | LENGTH_DELIMITED;
+  private static final int RESTAURANT_ATTRIBUTES = 9 << 3 | LENGTH_DELIMITED;
+
+  private static final int ITEM_ID = 1 << 3 | LENGTH_DELIMITED;
+  private static final int ITEM_ITEM_ID = 2 << 3 | LENGTH_DELIMITED;
+  private static final int ITEM_NAME = 3 << 3 | LENGTH_DELIMITED;
+  private static final int ITEM_IMAGE_URL = 4 << 3 | LENGTH_DELIMITED;
+  private static final int ITEM_ATTRIBUTES = 5 << 3 | LENGTH_DELIMITED;
+  private static final int ITEM_PRICE = 6 << 3 | VARINT;
+
+  private ProtoMapper() {
+  }
+
+  public static byte[] toProto(GetRestaurantsResponse getRestaurantsResponse) {
+    return toProto(getRestaurantsResponse, RestaurantFields.ALL);
+  }
+
+  /**
+   * Get the response with only the given fields of its restaurants set.
+   */
+  public static byte[] toProto(GetRestaurantsResponse getRestaurantsResponse,
+      RestaurantFields fields) {
+    return encode(output -> {
+      List<Restaurant> restaurants = getRestaurantsResponse.getRestaurants();
+      if (restaurants != null) {
+        for (Restaurant restaurant : restaurants) {
+          output.writeUInt32NoTag(RESPONSE_RESTAURANTS);
+          output.writeByteArrayNoTag(toProto(restaurant, fields));
+        }
+      }
+      if (getRestaurantsResponse.isPartial()) {
+        output.writeUInt32NoTag(RESPONSE_PARTIAL);
+        output.writeBoolNoTag(true);
+      }
+      writeString(output, RESPONSE_NEXT_CURSOR, getRestaurantsResponse.getNextCursor());
+    });
+  }
+
+  public static byte[] toProto(Restaurant restaurant) {
+    return toProto(restaurant, RestaurantFields.ALL);
+  }
+
+  private static byte[] toProto(Restaurant restaurant, RestaurantFields fields) {
+    // Names of the fields asked for are those of the DTO, the restaurant id is always kept.
+    Set<String> names = fields.getNames();
+    return encode(output -> {
+      writeString(output, RESTAURANT_ID, restaurant.getRestaurantId());
+      if (names.contains("name")) {
+        writeString(output, RESTAURANT_NAME, restaurant.getName());
+      }
+      if (names.contains("city")) {
+        writeString(output, RESTAURANT_CITY, restaurant.getCity());
+      }
+      if (names.contains("imageUrl")) {
+        writeString(output, RESTAURANT_IMAGE_URL, restaurant.getImageUrl());
+      }
+      if (names.contains("latitude")) {
+        writeDouble(output, RESTAURANT_LATITUDE, restaurant.getLatitude());
+      }
+      if (names.contains("longitude")) {
+        writeDouble(output, RESTAURANT_LONGITUDE, restaurant.getLongitude());
+      }
+      if (names.contains("opensAt")) {
+        writeString(output, RESTAURANT_OPENS_AT, restaurant.getOpensAt());
+      }
+      if (names.contains("closesAt")) {
+        writeString(output, RESTAURANT_CLOSES_AT, restaurant.getClosesAt());
+      }
+      if (names.contains("attributes")) {
+        writeStrings(output, RESTAURANT_ATTRIBUTES, restaurant.getAttributes());
+      }
+    });
+  }
+
+  public static byte[] toProto(Item item) {
+    return encode(output -> {
+      writeString(output, ITEM_ID, item.getId());
+      writeString(output, ITEM_ITEM_ID, item.getItemId());
+      writeString(output, ITEM_NAME, item.getName());
+      writeString(output, ITEM_IMAGE_URL, item.getImageUrl());
+      writeStrings(output, ITEM_ATTRIBUTES, item.getAttributes());
+      if (item.getPrice() != 0) {
+        output.writeUInt32NoTag(ITEM_PRICE);
+        output.writeInt32NoTag(item.getPrice());
+      }
+    });
+  }
+
+  /**
+   * Reads a GetRestaurantsResponse message, skipping fields this version doesn't know.
+   */
+  public static GetRestaurantsResponse getRestaurantsResponseFromProto(byte[] proto)
+      throws IOException {
+    GetRestaurantsResponse getRestaurantsResponse = new GetRestaurantsResponse(new ArrayList<>());
+    CodedInputStream input = CodedInputStream.newInstance(proto);
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      switch (tag) {
+        case RESPONSE_RESTAURANTS:
+          getRestaurantsResponse.getRestaurants().add(restaurantFromProto(input.readByteArray()));
+          break;
+        case RESPONSE_PARTIAL:
+          getRestaurantsResponse.setPartial(input.readBool());
+          break;
+        case RESPONSE_NEXT_CURSOR:
+          getRestaurantsResponse.setNextCursor(input.readStringRequireUtf8());
+          break;
+        default:
+          input.skipField(tag);
+      }
+    }
+    return getRestaurantsResponse;
+  }
+
+  /**
+   * Reads a Restaurant message, skipping fields this version doesn't know.
+   */
+  public static Restaurant restaurantFromProto(byte[] proto) throws IOException {
+    Restaurant restaurant = new Restaurant();
+    CodedInputStream input = CodedInputStream.newInstance(proto);
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      switch (tag) {
+        case RESTAURANT_ID:
+          restaurant.setRestaurantId(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_NAME:
+          restaurant.setName(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_CITY:
+          restaurant.setCity(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_IMAGE_URL:
+          restaurant.setImageUrl(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_LATITUDE:
+          restaurant.setLatitude(input.readDouble());
+          break;
+        case RESTAURANT_LONGITUDE:
+          restaurant.setLongitude(input.readDouble());
+          break;
+        case RESTAURANT_OPENS_AT:
+          restaurant.setOpensAt(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_CLOSES_AT:
+          restaurant.setClosesAt(input.readStringRequireUtf8());
+          break;
+        case RESTAURANT_ATTRIBUTES:
+          restaurant.getAttributes().add(input.readStringRequireUtf8());
+          break;
+        default:
+          input.skipField(tag);
+      }
+    }
+    return restaurant;
+  }
+
+  /**
+   * Reads an Item message, skipping fields this version doesn't know.
+   */
+  public static Item itemFromProto(byte[] proto) throws IOException {
+    Item item = new Item();
+    CodedInputStream input = CodedInputStream.newInstance(proto);
+    for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+      switch (tag) {
+        case ITEM_ID:
+          item.setId(input.readStringRequireUtf8());
+          break;
+        case ITEM_ITEM_ID:
+          item.setItemId(input.readStringRequireUtf8());
+          break;
+        case ITEM_NAME:
+          item.setName(input.readStringRequireUtf8());
+          break;
+        case ITEM_IMAGE_URL:
+          item.setImageUrl(input.readStringRequireUtf8());
+          break;
+        case ITEM_ATTRIBUTES:
+          item.getAttributes().add(input.readStringRequireUtf8());
+          break;
+        case ITEM_PRICE:
+          item.setPrice(input.readInt32());
+          break;
+        default:
+          input.skipField(tag);
+      }
+    }
+    return item;
+  }
+
+  private interface MessageWriter {
+    void writeTo(CodedOutputStream output) throws IOException;
+  }
+
+  private static byte[] encode(MessageWriter messageWriter) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    try {
+      messageWriter.writeTo(output);
+      output.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  // Like generated code, fields holding their default value are not written.
+  private static void writeString(CodedOutputStream output, int tag, String value)
+      throws IOException {
+    if (value != null && !value.isEmpty()) {
+      output.writeUInt32NoTag(tag);
+      output.writeStringNoTag(value);
+    }
+  }
+
+  private static void writeStrings(CodedOutputStream output, int tag, List<String> values)
+      throws IOException {
+    if (values == null) {
+      return;
+    }
+    for (String value : values) {
+      if (value != null) {
+        output.writeUInt32NoTag(tag);
+        output.writeStringNoTag(value);
+      }
+    }
+  }
+
+  private static void writeDouble(CodedOutputStream output, int tag, double value)
+      throws IOException {
+    if (Double.doubleToRawLongBits(value) != 0) {
+      output.writeUInt32NoTag(tag);
+      output.writeDoubleNoTag(value);
+    }
+  }
+}
@@ -32,4 +32,7 @@ public class ItemEntity {
   @NotNull
   private List<String> attributes = new ArrayList<>();
 
+  // Tokens of name and attributes, backs the keyword search backend.
+  private SearchKeywords keywords;
+
 }
@@ -12,6 +12,7 @@ import javax.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 // Java class that maps to Mongo collection.
@@ -41,6 +42,9 @@ public class RestaurantEntity {
   @NotNull
   private Double longitude;
 
+  // GeoJSON copy of latitude/longitude, backs the 2dsphere index used for proximity queries.
+  private GeoJsonPoint location;
+
   @NotNull
   private String opensAt;
 
@@ -50,5 +54,7 @@ public class RestaurantEntity {
   @NotNull
   private List<String> attributes = new ArrayList<>();
 
-}
+  // Tokens of name and attributes, backs the keyword search backend.
+  private SearchKeywords keywords;
 
+}
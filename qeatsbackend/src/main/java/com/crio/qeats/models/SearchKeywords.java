@@ -0,0 +1,41 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.models;
+
+import com.crio.qeats.indexes.SearchTokenizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Normalized tokens of the searchable text of a restaurant or item, stored with the document
+ * behind multikey indexes so that searches are index lookups instead of regex scans.
+ * Embedded (rather than flat fields) so that the DTO mapping never mistakes them for the
+ * name or attributes themselves.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchKeywords {
+
+  // Field of the documents the keywords are embedded in.
+  public static final String FIELD = "keywords";
+  public static final String NAME = FIELD + ".name";
+  public static final String ATTRIBUTES = FIELD + ".attributes";
+
+  private List<String> name = new ArrayList<>();
+
+  private List<String> attributes = new ArrayList<>();
+
+  public static SearchKeywords of(String name, Collection<String> attributes) {
+    return new SearchKeywords(SearchTokenizer.tokenize(name),
+        new ArrayList<>(SearchTokenizer.tokenize(attributes)));
+  }
+}
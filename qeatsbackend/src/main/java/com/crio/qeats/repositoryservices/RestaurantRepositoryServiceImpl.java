@@ -6,21 +6,34 @@
 
 package com.crio.qeats.repositoryservices;
 
-import ch.hsr.geohash.GeoHash;
-import com.crio.qeats.configs.RedisConfiguration;
+import com.crio.qeats.cache.CloseByCacheEntry;
+import com.crio.qeats.cache.CloseByRestaurantCache;
+import com.crio.qeats.cache.RestaurantCatalog;
+import com.crio.qeats.cache.ServingCell;
 import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.RestaurantFields;
 import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.indexes.ItemRestaurantIndex;
+import com.crio.qeats.indexes.RestaurantSearchIndex;
+import com.crio.qeats.indexes.RestaurantSpatialIndex;
+import com.crio.qeats.indexes.RestaurantTokenIndex.Field;
+import com.crio.qeats.indexes.SearchKeywordsIndex;
+import com.crio.qeats.indexes.SearchTokenizer;
+import com.crio.qeats.mappers.EntityMapper;
 import com.crio.qeats.models.ItemEntity;
 import com.crio.qeats.models.MenuEntity;
 import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.models.SearchKeywords;
 import com.crio.qeats.repositories.ItemRepository;
 import com.crio.qeats.repositories.MenuRepository;
 import com.crio.qeats.repositories.RestaurantRepository;
 import com.crio.qeats.utils.GeoLocation;
 import com.crio.qeats.utils.GeoUtils;
+import com.crio.qeats.utils.SearchDeadline;
+import com.crio.qeats.utils.SearchProjection;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -29,31 +42,34 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import javax.inject.Provider;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
-import redis.clients.jedis.Jedis;
 
 
 @Service
+@ConditionalOnProperty(value = "qeats.restaurant-repository-service", havingValue = "default",
+    matchIfMissing = true)
 public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryService {
 
+  // Read for every search match whatever the fields asked for: the distance and opening hours
+  // filters need the position and hours, exact name matches are ordered first.
+  private static final ImmutableSet<String> SEARCH_FILTER_FIELDS = ImmutableSet.of(
+      RestaurantFields.RESTAURANT_ID, "name", "latitude", "longitude", "opensAt", "closesAt");
+
   @Autowired
-  private RedisConfiguration redisConfiguration;
+  private CloseByRestaurantCache closeByRestaurantCache;
 
   @Autowired
-  private MongoTemplate mongoTemplate;
+  private RestaurantCatalog restaurantCatalog;
 
   @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
+  private MongoTemplate mongoTemplate;
 
   @Autowired
   private RestaurantRepository restaurantRepository;
@@ -64,9 +80,25 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   @Autowired
   private MenuRepository menuRepository;
 
+  @Autowired(required = false)
+  private RestaurantSpatialIndex restaurantSpatialIndex;
+
+  @Autowired(required = false)
+  private RestaurantSearchIndex restaurantSearchIndex;
+
+  @Autowired(required = false)
+  private ItemRestaurantIndex itemRestaurantIndex;
+
+  @Autowired(required = false)
+  private SearchKeywordsIndex searchKeywordsIndex;
+
   private boolean isOpenNow(LocalTime time, RestaurantEntity res) {
-    LocalTime openingTime = LocalTime.parse(res.getOpensAt());
-    LocalTime closingTime = LocalTime.parse(res.getClosesAt());
+    return isOpenNow(time, res.getOpensAt(), res.getClosesAt());
+  }
+
+  private boolean isOpenNow(LocalTime time, String opensAt, String closesAt) {
+    LocalTime openingTime = LocalTime.parse(opensAt);
+    LocalTime closingTime = LocalTime.parse(closesAt);
 
     return time.isAfter(openingTime) && time.isBefore(closingTime);
   }
@@ -79,41 +111,130 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findAllRestaurantsCloseBy(Double latitude,
       Double longitude, LocalTime currentTime, Double servingRadiusInKms) {
 
-    List<Restaurant> restaurants = new ArrayList<Restaurant>();
-    GeoHash geoHash = GeoHash.withCharacterPrecision(latitude, longitude, 7);
-    Jedis jedis = redisConfiguration.getJedisPool().getResource();
-    ObjectMapper objectMapper = new ObjectMapper();
-    String restaurantsString;
-    
-    // If restaurants exist in cache
-    if (jedis.exists(geoHash.toBase32())) {
-      restaurantsString = jedis.get(geoHash.toBase32());
-      try {
-        restaurants = objectMapper.readValue(restaurantsString, 
-                      new TypeReference<List<Restaurant>>(){});
-        return restaurants;
-      } catch (Exception e) {
-        e.printStackTrace();
+    ServingCell servingCell = ServingCell.of(latitude, longitude, servingRadiusInKms);
+    String cacheKey = servingCell.getCacheKey(currentTime);
+    long requestMillis = System.currentTimeMillis();
+    CloseByCacheEntry cacheEntry = closeByRestaurantCache.get(cacheKey,
+        staleEntry -> loadCloseByCacheEntry(servingCell, currentTime, requestMillis, staleEntry));
+
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (Restaurant restaurant : restaurantCatalog.getAll(cacheEntry.getRestaurantIds())) {
+      if (isRestaurantCloseByAndOpen(restaurant, currentTime, latitude, longitude,
+          servingRadiusInKms)) {
+        restaurants.add(restaurant);
       }
     }
-    
-    // If restaurants don't exist in cache
-    ModelMapper modelMapper = modelMapperProvider.get();
-    List<RestaurantEntity> restaurantList = restaurantRepository.findAll();
+    return restaurants;
+  }
+
+  /**
+   * Computes the cache entry of a serving cell: every restaurant that any user in the cell
+   * could be served by and that is open at some point while the entry may be served, ie. from
+   * now until its hard expiry. Requests filter it down to the restaurants open at their time.
+   *   - Now is the request time plus the time since, a background refresh runs after the
+   *     request that asked for it.
+   *   - The entry soft expires at the first opening or closing time of the restaurants around
+   *     the cell past that of the stale entry it replaces, so an early refresh extends the
+   *     entry rather than computing it again.
+   * Only the ids are cached per cell, the restaurants themselves go to the shared catalog.
+   */
+  private CloseByCacheEntry loadCloseByCacheEntry(ServingCell servingCell,
+      LocalTime currentTime, long requestMillis, CloseByCacheEntry staleEntry) {
+    List<RestaurantEntity> restaurantEntitiesInCell = findRestaurantEntitiesInCell(servingCell);
+
+    long nowMillis = System.currentTimeMillis();
+    long windowEndNanos = ServingCell.getTimeWindowEndNanos(currentTime);
+    long fromNanos = Math.min(windowEndNanos,
+        currentTime.toNanoOfDay() + millisToNanos(nowMillis - requestMillis));
+    long staleSoftExpiryNanos = staleEntry == null ? fromNanos
+        : fromNanos + millisToNanos(Math.max(0, staleEntry.getSoftExpiresAtMillis() - nowMillis));
+    long softExpiryNanos = nextSoftExpiryNanos(restaurantEntitiesInCell, staleSoftExpiryNanos,
+        windowEndNanos);
+    long untilNanos = softExpiryNanos
+        + millisToNanos(closeByRestaurantCache.getStaleGraceInMillis());
+
+    List<RestaurantEntity> servedRestaurantEntities = new ArrayList<>();
+    List<String> restaurantIdsInCell = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantEntitiesInCell) {
+      if (isOpenBetween(fromNanos, untilNanos, restaurantEntity)) {
+        servedRestaurantEntities.add(restaurantEntity);
+        restaurantIdsInCell.add(restaurantEntity.getRestaurantId());
+      }
+    }
+    restaurantCatalog.putAll(servedRestaurantEntities);
+    return new CloseByCacheEntry(
+        nowMillis + Math.max(1L, (softExpiryNanos - fromNanos) / 1_000_000L),
+        restaurantIdsInCell);
+  }
+
+  private static long millisToNanos(long millis) {
+    return millis * 1_000_000L;
+  }
+
+  /**
+   * Whether the restaurant is open at some instant between the given nanos of the day.
+   */
+  private static boolean isOpenBetween(long fromNanos, long untilNanos,
+      RestaurantEntity restaurantEntity) {
+    long openingNanos = LocalTime.parse(restaurantEntity.getOpensAt()).toNanoOfDay();
+    long closingNanos = LocalTime.parse(restaurantEntity.getClosesAt()).toNanoOfDay();
+    return openingNanos < untilNanos && closingNanos > fromNanos
+        && openingNanos < closingNanos;
+  }
+
+  private List<RestaurantEntity> findRestaurantEntitiesInCell(ServingCell servingCell) {
+    List<RestaurantEntity> restaurantEntities = new ArrayList<>();
+    List<RestaurantEntity> restaurantList = findRestaurantEntitiesCloseBy(
+        servingCell.getCentreLatitude(), servingCell.getCentreLongitude(),
+        servingCell.getSupersetRadiusInKms());
     for (RestaurantEntity restaurantEntity: restaurantList) {
-      if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, 
-          latitude, longitude, servingRadiusInKms)) {
-        Restaurant restaurant = modelMapper.map(restaurantEntity, Restaurant.class);
-        restaurants.add(restaurant);
+      if (GeoUtils.findDistanceInKm(servingCell.getCentreLatitude(),
+          servingCell.getCentreLongitude(), restaurantEntity.getLatitude(),
+          restaurantEntity.getLongitude()) < servingCell.getSupersetRadiusInKms()) {
+        restaurantEntities.add(restaurantEntity);
       }
     }
-    try {
-      restaurantsString = objectMapper.writeValueAsString(restaurants);
-      jedis.set(geoHash.toBase32(),restaurantsString);
-    } catch (Exception e) {
-      e.printStackTrace();
+    return restaurantEntities;
+  }
+
+  /**
+   * Soft expiry of a cache entry, in nanos of the day.
+   *   - The next opening or closing time of any of the given restaurants after {@code after},
+   *   - but no later than the end of the time window of the entry
+   *   - or {@link GlobalConstants#REDIS_ENTRY_EXPIRY_IN_SECONDS} after {@code after}.
+   * Opening and closing times within a second of {@code after} are skipped, they are those the
+   * stale entry already expired at (give or take the clock rounding).
+   */
+  private long nextSoftExpiryNanos(List<RestaurantEntity> restaurantEntities, long after,
+      long windowEndNanos) {
+    long skipUntil = after + millisToNanos(1000L);
+    long maxExpiry = after + millisToNanos(GlobalConstants.REDIS_ENTRY_EXPIRY_IN_SECONDS * 1000L);
+    // Past the end of the window nobody asks for the entry anymore, it just expires.
+    long expiry = windowEndNanos > skipUntil ? Math.min(windowEndNanos, maxExpiry) : maxExpiry;
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      for (String transition : Arrays.asList(restaurantEntity.getOpensAt(),
+          restaurantEntity.getClosesAt())) {
+        long transitionNanos = LocalTime.parse(transition).toNanoOfDay();
+        if (transitionNanos > skipUntil && transitionNanos < expiry) {
+          expiry = transitionNanos;
+        }
+      }
     }
-    return restaurants;
+    return expiry;
+  }
+
+  /**
+   * Get the restaurants which may lie within the serving radius of the given location.
+   *   - Uses the in-memory spatial index when it is enabled and built.
+   *   - Falls back to a full scan of the restaurants collection otherwise.
+   * @return candidates for the exact distance check, a superset of the restaurants in range
+   */
+  protected List<RestaurantEntity> findRestaurantEntitiesCloseBy(Double latitude,
+      Double longitude, Double servingRadiusInKms) {
+    if (restaurantSpatialIndex != null && restaurantSpatialIndex.isReady()) {
+      return restaurantSpatialIndex.findCandidates(latitude, longitude, servingRadiusInKms);
+    }
+    return restaurantRepository.findAll();
   }
 
   // TODO: CRIO_TASK_MODULE_RESTAURANTSEARCH
@@ -122,7 +243,17 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   @Override
   public List<Restaurant> findRestaurantsByName(Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    ModelMapper modelMapper = modelMapperProvider.get();
+    if (isSearchIndexReady()) {
+      return toRestaurantsCloseByAndOpen(
+          exactMatchesFirst(restaurantSearchIndex.search(Field.NAME, searchString), searchString),
+          latitude, longitude, currentTime, servingRadiusInKms);
+    }
+    if (searchKeywordsIndex != null) {
+      return toRestaurantsCloseByAndOpen(exactMatchesFirst(
+          findRestaurantEntitiesByKeywords(SearchKeywords.NAME, searchString), searchString),
+          latitude, longitude, currentTime, servingRadiusInKms);
+    }
+
     Set<String> restaurantIdSet = new HashSet<>();
     List<Restaurant> restaurants = new ArrayList<>();
 
@@ -134,7 +265,7 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
         if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, 
             latitude, longitude, servingRadiusInKms)
             && !restaurantIdSet.contains(restaurantEntity.getId())) {
-          restaurants.add(modelMapper.map(restaurantEntity, Restaurant.class));
+          restaurants.add(EntityMapper.toRestaurant(restaurantEntity));
           restaurantIdSet.add(restaurantEntity.getRestaurantId());
         }
       }
@@ -148,7 +279,7 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
         if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, 
             latitude, longitude, servingRadiusInKms)
             && !restaurantIdSet.contains(restaurantEntity.getId())) {
-          restaurants.add(modelMapper.map(restaurantEntity, Restaurant.class));
+          restaurants.add(EntityMapper.toRestaurant(restaurantEntity));
           restaurantIdSet.add(restaurantEntity.getRestaurantId());
         }
       }
@@ -164,20 +295,28 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findRestaurantsByAttributes(
       Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    if (isSearchIndexReady()) {
+      return searchIndex(Field.ATTRIBUTES, latitude, longitude, searchString, currentTime,
+          servingRadiusInKms);
+    }
+    if (searchKeywordsIndex != null) {
+      return findRestaurantsByKeywords(SearchKeywords.ATTRIBUTES, latitude, longitude,
+          searchString, currentTime, servingRadiusInKms);
+    }
     
     Query query = new Query();
     for (String str: searchString.split(" ")) {
-      Pattern pattern = Pattern.compile(str, Pattern.CASE_INSENSITIVE);
+      Pattern pattern = Pattern.compile(Pattern.quote(str), Pattern.CASE_INSENSITIVE);
       query.addCriteria(Criteria.where("attributes").regex(pattern));
     }
     
     List<Restaurant> restaurants = new ArrayList<>();
-    ModelMapper modelMapper = modelMapperProvider.get();
-    List<RestaurantEntity> restaurantEntityList = mongoTemplate.find(query, RestaurantEntity.class);
+    List<RestaurantEntity> restaurantEntityList = mongoTemplate.find(
+        withSearchDeadline(withSearchProjection(query)), RestaurantEntity.class);
     for (RestaurantEntity restaurantEntity: restaurantEntityList) {
       if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, 
           latitude, longitude, servingRadiusInKms)) {
-        restaurants.add(modelMapper.map(restaurantEntity, Restaurant.class));
+        restaurants.add(EntityMapper.toRestaurant(restaurantEntity));
       }
     }
     return restaurants;
@@ -194,6 +333,20 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   public List<Restaurant> findRestaurantsByItemName(
       Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    if (isSearchIndexReady()) {
+      return searchIndex(Field.ITEM_NAME, latitude, longitude, searchString, currentTime,
+          servingRadiusInKms);
+    }
+    if (searchKeywordsIndex != null) {
+      return getRestaurantListServingItems(latitude, longitude, currentTime, servingRadiusInKms,
+          findItemsByKeywords(SearchKeywordsIndex.matchingAnyWord(SearchKeywords.NAME,
+              searchString)));
+    }
+    if (itemRestaurantIndex != null && itemRestaurantIndex.isReady()) {
+      return findRestaurantsCloseByAndOpen(
+          itemRestaurantIndex.findRestaurantsServingItemName(searchString),
+          latitude, longitude, currentTime, servingRadiusInKms);
+    }
     
     String regex = String.join("|", Arrays.asList(searchString.split(" ")));
     Optional<List<ItemEntity>> optionalExactItems
@@ -218,40 +371,53 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
         .map(ItemEntity::getItemId)
         .collect(Collectors.toList());
 
+    if (itemRestaurantIndex != null && itemRestaurantIndex.isReady()) {
+      return findRestaurantsCloseByAndOpen(
+          itemRestaurantIndex.findRestaurantsServingItems(itemIdList),
+          latitude, longitude, currentTime, servingRadiusInKms);
+    }
+
     Optional<List<MenuEntity>> optionalMenuEntityList
         = menuRepository.findMenusByItemsItemIdIn(itemIdList);
-    Optional<List<RestaurantEntity>> optionalRestaurantEntityList = Optional.empty();
-
+    Set<String> restaurantIdSet = new HashSet<>();
     if (optionalMenuEntityList.isPresent()) {
-      List<MenuEntity> menuEntityList = optionalMenuEntityList.get();
-      List<String> restaurantIdList = menuEntityList
-          .stream()
-          .map(MenuEntity::getRestaurantId)
-          .collect(Collectors.toList());
-      optionalRestaurantEntityList = restaurantRepository
-          .findRestaurantsByRestaurantIdIn(restaurantIdList);
+      for (MenuEntity menuEntity : optionalMenuEntityList.get()) {
+        restaurantIdSet.add(menuEntity.getRestaurantId());
+      }
     }
+    return findRestaurantsCloseByAndOpen(restaurantIdSet, latitude, longitude, currentTime,
+        servingRadiusInKms);
+  }
 
-    List<Restaurant> restaurantList = new ArrayList<>();
-    ModelMapper modelMapper = modelMapperProvider.get();
-    if (optionalRestaurantEntityList.isPresent()) {
-      List<RestaurantEntity> restaurantEntityList = optionalRestaurantEntityList.get();
+  /**
+   * Get the restaurants with the given ids which are close by and open.
+   *   - With the spatial index built, the ids only filter the restaurants close by.
+   *   - Otherwise the restaurants are read from Mongo by id.
+   */
+  private List<Restaurant> findRestaurantsCloseByAndOpen(Set<String> restaurantIdSet,
+      Double latitude, Double longitude, LocalTime currentTime, Double servingRadiusInKms) {
+    if (restaurantIdSet.isEmpty()) {
+      return new ArrayList<>();
+    }
 
-      List<RestaurantEntity> restaurantEntitiesFiltered = new ArrayList<>();
+    List<RestaurantEntity> restaurantEntityList;
+    if (restaurantSpatialIndex != null && restaurantSpatialIndex.isReady()) {
+      restaurantEntityList = restaurantSpatialIndex.findCandidates(latitude, longitude,
+          servingRadiusInKms);
+    } else {
+      Query query = new Query(Criteria.where(RestaurantFields.RESTAURANT_ID).in(restaurantIdSet));
+      restaurantEntityList = mongoTemplate.find(
+          withSearchDeadline(withSearchProjection(query)), RestaurantEntity.class);
+    }
 
-      for (RestaurantEntity restaurantEntity : restaurantEntityList) {
-        if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
-            servingRadiusInKms)) {
-          restaurantEntitiesFiltered.add(restaurantEntity);
-        }
+    List<Restaurant> restaurantList = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantEntityList) {
+      if (restaurantIdSet.contains(restaurantEntity.getRestaurantId())
+          && isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
+          servingRadiusInKms)) {
+        restaurantList.add(EntityMapper.toRestaurant(restaurantEntity));
       }
-
-      restaurantList = restaurantEntitiesFiltered
-          .stream()
-          .map(restaurantEntity -> modelMapper.map(restaurantEntity, Restaurant.class))
-          .collect(Collectors.toList());
     }
-
     return restaurantList;
   }
 
@@ -261,10 +427,24 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
   @Override
   public List<Restaurant> findRestaurantsByItemAttributes(Double latitude, Double longitude,
       String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    if (isSearchIndexReady()) {
+      return searchIndex(Field.ITEM_ATTRIBUTES, latitude, longitude, searchString, currentTime,
+          servingRadiusInKms);
+    }
+    if (searchKeywordsIndex != null) {
+      return getRestaurantListServingItems(latitude, longitude, currentTime, servingRadiusInKms,
+          findItemsByKeywords(SearchKeywordsIndex.matching(SearchKeywords.ATTRIBUTES,
+              searchString)));
+    }
+    if (itemRestaurantIndex != null && itemRestaurantIndex.isReady()) {
+      return findRestaurantsCloseByAndOpen(
+          itemRestaurantIndex.findRestaurantsServingItemAttributes(searchString),
+          latitude, longitude, currentTime, servingRadiusInKms);
+    }
     
     List<Pattern> patterns = Arrays
         .stream(searchString.split(" "))
-        .map(attr -> Pattern.compile(attr, Pattern.CASE_INSENSITIVE))
+        .map(attr -> Pattern.compile(Pattern.quote(attr), Pattern.CASE_INSENSITIVE))
         .collect(Collectors.toList());
     Query query = new Query();
     for (Pattern pattern : patterns) {
@@ -273,11 +453,114 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
       );
     }
 
-    List<ItemEntity> itemEntityList = mongoTemplate.find(query, ItemEntity.class);
+    List<ItemEntity> itemEntityList =
+        mongoTemplate.find(withSearchDeadline(query), ItemEntity.class);
     return getRestaurantListServingItems(latitude, longitude, currentTime, servingRadiusInKms,
         itemEntityList);
   }
 
+  /**
+   * Bounds the query by the time left to the search request it is run for, if any, so that
+   * Mongo gives up on it (and frees the connection) once the request no longer waits for it.
+   */
+  private Query withSearchDeadline(Query query) {
+    long remainingMillis = SearchDeadline.remainingMillis();
+    if (remainingMillis > 0) {
+      // maxTimeMS is a 32 bit int to Mongo, which rejects anything larger.
+      query.maxTimeMsec(Math.min(remainingMillis, Integer.MAX_VALUE));
+    }
+    return query;
+  }
+
+  /**
+   * Reads only the restaurant fields the search request it is run for asked for, plus those
+   * needed to filter and order the matches. The search keywords and GeoJSON location, which
+   * are not returned, are never read.
+   */
+  private Query withSearchProjection(Query query) {
+    RestaurantFields fields = SearchProjection.fields();
+    if (fields.isAll()) {
+      query.fields().exclude(SearchKeywords.FIELD).exclude("location");
+      return query;
+    }
+    for (String field : Sets.union(fields.getNames(), SEARCH_FILTER_FIELDS)) {
+      query.fields().include(field);
+    }
+    return query;
+  }
+
+  private boolean isSearchIndexReady() {
+    return restaurantSearchIndex != null && restaurantSearchIndex.isReady();
+  }
+
+  /**
+   * Searches the in-memory index instead of running regex queries against Mongo.
+   * @return restaurants matching in the given field that are close by and open
+   */
+  private List<Restaurant> searchIndex(Field field, Double latitude, Double longitude,
+      String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    return toRestaurantsCloseByAndOpen(restaurantSearchIndex.search(field, searchString),
+        latitude, longitude, currentTime, servingRadiusInKms);
+  }
+
+  /**
+   * Searches the keywords of the restaurants (see {@link SearchKeywordsIndex}).
+   * @return restaurants matching in the given field that are close by and open
+   */
+  private List<Restaurant> findRestaurantsByKeywords(String field, Double latitude,
+      Double longitude, String searchString, LocalTime currentTime, Double servingRadiusInKms) {
+    return toRestaurantsCloseByAndOpen(findRestaurantEntitiesByKeywords(field, searchString),
+        latitude, longitude, currentTime, servingRadiusInKms);
+  }
+
+  private List<RestaurantEntity> findRestaurantEntitiesByKeywords(String field,
+      String searchString) {
+    Query query = SearchKeywordsIndex.matching(field, searchString);
+    if (query == null) {
+      return new ArrayList<>();
+    }
+    return mongoTemplate.find(withSearchDeadline(withSearchProjection(query)),
+        RestaurantEntity.class);
+  }
+
+  private List<ItemEntity> findItemsByKeywords(Query query) {
+    if (query == null) {
+      return new ArrayList<>();
+    }
+    query.fields().include("itemId");
+    return mongoTemplate.find(withSearchDeadline(query), ItemEntity.class);
+  }
+
+  private List<Restaurant> toRestaurantsCloseByAndOpen(List<RestaurantEntity> restaurantEntities,
+      Double latitude, Double longitude, LocalTime currentTime, Double servingRadiusInKms) {
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      if (isRestaurantCloseByAndOpen(restaurantEntity, currentTime, latitude, longitude,
+          servingRadiusInKms)) {
+        restaurants.add(EntityMapper.toRestaurant(restaurantEntity));
+      }
+    }
+    return restaurants;
+  }
+
+  // Moves the restaurants named exactly like the search, up to case and accents, to the front,
+  // like the exact then inexact regex queries do.
+  private List<RestaurantEntity> exactMatchesFirst(List<RestaurantEntity> restaurantEntities,
+      String searchString) {
+    String normalizedSearchString = SearchTokenizer.normalize(searchString);
+    List<RestaurantEntity> exactMatches = new ArrayList<>();
+    List<RestaurantEntity> otherMatches = new ArrayList<>();
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      if (SearchTokenizer.normalize(restaurantEntity.getName()).equals(normalizedSearchString)) {
+        exactMatches.add(restaurantEntity);
+      } else {
+        otherMatches.add(restaurantEntity);
+      }
+    }
+    exactMatches.addAll(otherMatches);
+    return exactMatches;
+  }
+
   /**
    * Utility method to check if a restaurant is within the serving radius at a given time.
    * @return boolean True if restaurant falls within serving radius and is open, false otherwise
@@ -293,36 +576,14 @@ public class RestaurantRepositoryServiceImpl implements RestaurantRepositoryServ
     return false;
   }
 
-  @Override
-  public Future<List<Restaurant>> findRestaurantsByNameAsync(Double latitude, 
-      Double longitude, String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    List<Restaurant> restaurants = findRestaurantsByName(latitude, longitude, 
-        searchString, currentTime, servingRadiusInKms);
-    return new AsyncResult<>(restaurants);
-  }
-
-  @Override
-  public Future<List<Restaurant>> findRestaurantsByAttributesAsync(Double latitude, 
-      Double longitude, String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    List<Restaurant> restaurants = findRestaurantsByAttributes(latitude, longitude, 
-        searchString, currentTime, servingRadiusInKms);
-    return new AsyncResult<>(restaurants);
-  }
-
-  @Override
-  public Future<List<Restaurant>> findRestaurantsByItemNameAsync(Double latitude, 
-      Double longitude, String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    List<Restaurant> restaurants = findRestaurantsByItemName(latitude, longitude, 
-        searchString, currentTime, servingRadiusInKms);
-    return new AsyncResult<>(restaurants);
-  }
+  private boolean isRestaurantCloseByAndOpen(Restaurant restaurant,
+      LocalTime currentTime, Double latitude, Double longitude, Double servingRadiusInKms) {
+    if (isOpenNow(currentTime, restaurant.getOpensAt(), restaurant.getClosesAt())) {
+      return GeoUtils.findDistanceInKm(latitude, longitude,
+          restaurant.getLatitude(), restaurant.getLongitude())
+          < servingRadiusInKms;
+    }
 
-  @Override
-  public Future<List<Restaurant>> findRestaurantsByItemAttributesAsync(Double latitude, 
-      Double longitude, String searchString, LocalTime currentTime, Double servingRadiusInKms) {
-    List<Restaurant> restaurants = findRestaurantsByItemAttributes(latitude, longitude, 
-        searchString, currentTime, servingRadiusInKms);
-    return new AsyncResult<>(restaurants);
+    return false;
   }
 }
-
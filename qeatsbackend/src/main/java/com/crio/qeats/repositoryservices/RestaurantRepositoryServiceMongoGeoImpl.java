@@ -0,0 +1,101 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.List;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Circle;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeospatialIndex;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Variant of {@link RestaurantRepositoryServiceImpl} that lets Mongo do the radius filtering
+ * through a 2dsphere index on {@code RestaurantEntity.location}, so only nearby documents
+ * cross the wire. Enable with {@code qeats.restaurant-repository-service=mongo-geo}.
+ */
+@Service
+@Log4j2
+@ConditionalOnProperty(value = "qeats.restaurant-repository-service", havingValue = "mongo-geo")
+public class RestaurantRepositoryServiceMongoGeoImpl extends RestaurantRepositoryServiceImpl {
+
+  private static final String LOCATION = "location";
+  private static final int BACKFILL_BATCH_SIZE = 1000;
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  /**
+   * Creates the 2dsphere index and fills in {@code location} on documents that only have
+   * latitude/longitude, such as those loaded by the setup scripts.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void ensureGeoSpatialIndex() {
+    Query missingLocation = new Query(Criteria.where(LOCATION).exists(false));
+    missingLocation.fields().include("latitude").include("longitude");
+
+    int updated = 0;
+    BulkOperations bulkOperations = null;
+    try (CloseableIterator<RestaurantEntity> restaurants =
+        mongoTemplate.stream(missingLocation, RestaurantEntity.class)) {
+      while (restaurants.hasNext()) {
+        RestaurantEntity restaurantEntity = restaurants.next();
+        if (restaurantEntity.getLatitude() == null || restaurantEntity.getLongitude() == null) {
+          continue;
+        }
+        if (bulkOperations == null) {
+          bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, RestaurantEntity.class);
+        }
+        bulkOperations.updateOne(
+            new Query(Criteria.where("_id").is(restaurantEntity.getId())),
+            Update.update(LOCATION, new GeoJsonPoint(restaurantEntity.getLongitude(),
+                restaurantEntity.getLatitude())));
+        if (++updated % BACKFILL_BATCH_SIZE == 0) {
+          bulkOperations.execute();
+          bulkOperations = null;
+        }
+      }
+    }
+    if (bulkOperations != null) {
+      bulkOperations.execute();
+    }
+
+    mongoTemplate.indexOps(RestaurantEntity.class)
+        .ensureIndex(new GeospatialIndex(LOCATION).typed(GeoSpatialIndexType.GEO_2DSPHERE));
+    log.info("Ensured 2dsphere index on restaurants, backfilled location on {} documents",
+        updated);
+  }
+
+  /**
+   * Get the restaurants within the serving radius using {@code $geoWithin/$centerSphere}.
+   * Unlike {@code $nearSphere} this does not sort by distance, which the callers don't need.
+   */
+  @Override
+  protected List<RestaurantEntity> findRestaurantEntitiesCloseBy(Double latitude,
+      Double longitude, Double servingRadiusInKms) {
+    Circle servingArea = new Circle(new Point(longitude, latitude),
+        new Distance(servingRadiusInKms, Metrics.KILOMETERS));
+    Query query = new Query(Criteria.where(LOCATION).withinSphere(servingArea));
+    return mongoTemplate.find(query, RestaurantEntity.class);
+  }
+}
@@ -10,6 +10,8 @@ package com.crio.qeats.services;
 import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.GetSuggestionsResponse;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -31,6 +33,17 @@ public interface RestaurantService {
   GetRestaurantsResponse findAllRestaurantsCloseBy(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime);
 
+  /**
+   * Identical to @link{findAllRestaurantsCloseBy}, with each restaurant already encoded as the
+   * JSON the API returns, so the response can be written without serializing them again.
+   * @param getRestaurantsRequest valid lat/long
+   * @param currentTime current time.
+   * @return PreparedRestaurantsResponse object containing the open restaurants, in the same
+   *     order, or an empty list if none fits the criteria.
+   */
+  PreparedRestaurantsResponse findAllRestaurantsCloseByPrepared(
+      GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime);
+
   /**
    * Get the restaurants by processing the query.
    * -Ordering rules
@@ -67,4 +80,12 @@ public interface RestaurantService {
   GetRestaurantsResponse findRestaurantsBySearchQueryMt(
       GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime);
 
+  /**
+   * Get completions of what the user is typing: restaurant names, cuisines and dish names,
+   * most frequent first (carried or listed by the most restaurants).
+   * @param prefix text typed so far
+   * @param limit maximum number of suggestions
+   * @return GetSuggestionsResponse object containing the suggestions, empty if none
+   */
+  GetSuggestionsResponse findSuggestions(String prefix, int limit);
 }
@@ -7,32 +7,73 @@
 
 package com.crio.qeats.services;
 
+import com.crio.qeats.cache.RestaurantJson;
+import com.crio.qeats.cache.RestaurantJsonCache;
+import com.crio.qeats.configs.SearchExecutorConfiguration;
 import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.exchanges.GetRestaurantsRequest;
 import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.GetSuggestionsResponse;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.crio.qeats.indexes.SuggestionIndex;
 import com.crio.qeats.repositoryservices.RestaurantRepositoryService;
+import com.crio.qeats.utils.SearchDeadline;
+import com.crio.qeats.utils.SearchProjection;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 @Log4j2
 public class RestaurantServiceImpl implements RestaurantService {
 
+  private static final String METRIC_PREFIX = "qeats.search.source";
+  private static final String EMPTY_RESPONSE_ETAG = "empty";
+  // Deadline of searches when qeats.search.deadline-ms is 0: wait for every source.
+  private static final long NO_DEADLINE = Long.MAX_VALUE;
+
   private final Double peakHoursServingRadiusInKms = 3.0;
   private final Double normalHoursServingRadiusInKms = 5.0;
   @Autowired
   private RestaurantRepositoryService restaurantRepositoryService;
 
+  @Autowired
+  @Qualifier(SearchExecutorConfiguration.SEARCH_EXECUTOR)
+  private ExecutorService searchExecutor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired(required = false)
+  private SuggestionIndex suggestionIndex;
+
+  @Autowired
+  private RestaurantJsonCache restaurantJsonCache;
+
+  // Latency budget of a concurrent search, 0 to wait for every source.
+  @Value("${qeats.search.deadline-ms:400}")
+  private long searchDeadlineInMillis;
+
 
   // TODO: CRIO_TASK_MODULE_RESTAURANTSAPI - Implement findAllRestaurantsCloseby.
   // Check RestaurantService.java file for the interface contract.
@@ -54,6 +95,25 @@ public class RestaurantServiceImpl implements RestaurantService {
     return response;
   }
 
+  @Override
+  public PreparedRestaurantsResponse findAllRestaurantsCloseByPrepared(
+      GetRestaurantsRequest getRestaurantsRequest, LocalTime currentTime) {
+    RestaurantFields fields = RestaurantFields.parse(getRestaurantsRequest.getFields());
+    List<Restaurant> restaurants =
+        findAllRestaurantsCloseBy(getRestaurantsRequest, currentTime).getRestaurants();
+    List<byte[]> preparedRestaurants = new ArrayList<>(restaurants.size());
+    List<HashCode> hashes = new ArrayList<>(restaurants.size());
+    for (Restaurant restaurant : restaurants) {
+      RestaurantJson restaurantJson = restaurantJsonCache.getJson(restaurant, fields);
+      preparedRestaurants.add(restaurantJson.getJson());
+      hashes.add(restaurantJson.getHash());
+    }
+    // The document is the restaurants in order, so is its ETag.
+    String etag = hashes.isEmpty()
+        ? EMPTY_RESPONSE_ETAG : Hashing.combineOrdered(hashes).toString();
+    return new PreparedRestaurantsResponse(preparedRestaurants, etag);
+  }
+
   // TODO: CRIO_TASK_MODULE_RESTAURANTSEARCH
   // Implement findRestaurantsBySearchQuery. The request object has the search string.
   // We have to combine results from multiple sources:
@@ -70,34 +130,31 @@ public class RestaurantServiceImpl implements RestaurantService {
         ? peakHoursServingRadiusInKms : normalHoursServingRadiusInKms;
     
     String searchFor = getRestaurantsRequest.getSearchFor();
-    List<Restaurant> restaurants = new ArrayList<>();
-    List<List<Restaurant>> listOfRestaurantLists = new ArrayList<>();
+    SearchPage searchPage =
+        new SearchPage(getRestaurantsRequest.getCursor(), getRestaurantsRequest.getLimit());
+    RestaurantFields fields = RestaurantFields.parse(getRestaurantsRequest.getFields());
     // If there is a search query
     if (searchFor != null && !searchFor.isEmpty()) {
-      listOfRestaurantLists.add(restaurantRepositoryService
-          .findRestaurantsByName(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms));
-      listOfRestaurantLists.add(restaurantRepositoryService
-          .findRestaurantsByAttributes(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms));
-      listOfRestaurantLists.add(restaurantRepositoryService
-          .findRestaurantsByItemName(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms));
-      listOfRestaurantLists.add(restaurantRepositoryService
-          .findRestaurantsByItemAttributes(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms));
-      
-      Set<String> restaurantIdSet = new HashSet<>();
-      for (List<Restaurant> listOfRestaurant: listOfRestaurantLists) {
-        for (Restaurant restaurant : listOfRestaurant) {
-          if (!restaurantIdSet.contains(restaurant.getRestaurantId())) {
-            restaurants.add(restaurant);
-            restaurantIdSet.add(restaurant.getRestaurantId());
-          }
+      Double latitude = getRestaurantsRequest.getLatitude();
+      Double longitude = getRestaurantsRequest.getLongitude();
+      List<Supplier<List<Restaurant>>> sources = Arrays.asList(
+          () -> restaurantRepositoryService.findRestaurantsByName(latitude, longitude,
+              searchFor, currentTime, servingRadiusInKms),
+          () -> restaurantRepositoryService.findRestaurantsByAttributes(latitude, longitude,
+              searchFor, currentTime, servingRadiusInKms),
+          () -> restaurantRepositoryService.findRestaurantsByItemName(latitude, longitude,
+              searchFor, currentTime, servingRadiusInKms),
+          () -> restaurantRepositoryService.findRestaurantsByItemAttributes(latitude, longitude,
+              searchFor, currentTime, servingRadiusInKms));
+      // Sources are only queried until the page is full.
+      for (Supplier<List<Restaurant>> source : sources) {
+        if (searchPage.isFull()) {
+          break;
         }
+        searchPage.addAll(SearchProjection.runWith(fields, source));
       }
     }
-    GetRestaurantsResponse response = new GetRestaurantsResponse(restaurants);
+    GetRestaurantsResponse response = toResponse(searchPage);
     log.info(response);
     return response;
   }
@@ -127,48 +184,115 @@ public class RestaurantServiceImpl implements RestaurantService {
         ? peakHoursServingRadiusInKms : normalHoursServingRadiusInKms;
     
     String searchFor = getRestaurantsRequest.getSearchFor();
-    List<Restaurant> restaurants;
-
-    if (!searchFor.isEmpty()) {
-      long startTime = System.currentTimeMillis();
-
-      Future<List<Restaurant>> futureRestaurantsByName = restaurantRepositoryService
-          .findRestaurantsByNameAsync(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms);
-      Future<List<Restaurant>> futureRestaurantsByAttributes = restaurantRepositoryService
-          .findRestaurantsByAttributesAsync(getRestaurantsRequest.getLatitude(), 
-          getRestaurantsRequest.getLongitude(), searchFor, currentTime, servingRadiusInKms);
+    SearchPage searchPage =
+        new SearchPage(getRestaurantsRequest.getCursor(), getRestaurantsRequest.getLimit());
+    RestaurantFields fields = RestaurantFields.parse(getRestaurantsRequest.getFields());
+    if (searchFor == null || searchFor.isEmpty()) {
+      return toResponse(searchPage);
+    }
 
-      List<Restaurant> restaurantsByName;
-      List<Restaurant> restaurantsByAttributes;
+    long deadlineMillis = searchDeadlineInMillis > 0
+        ? System.currentTimeMillis() + searchDeadlineInMillis : NO_DEADLINE;
+    Double latitude = getRestaurantsRequest.getLatitude();
+    Double longitude = getRestaurantsRequest.getLongitude();
+    Map<String, Future<List<Restaurant>>> sources = new LinkedHashMap<>();
+    sources.put("name", searchAsync("name", deadlineMillis, fields,
+        () -> restaurantRepositoryService.findRestaurantsByName(latitude, longitude,
+            searchFor, currentTime, servingRadiusInKms)));
+    sources.put("attributes", searchAsync("attributes", deadlineMillis, fields,
+        () -> restaurantRepositoryService.findRestaurantsByAttributes(latitude, longitude,
+            searchFor, currentTime, servingRadiusInKms)));
+    sources.put("itemName", searchAsync("itemName", deadlineMillis, fields,
+        () -> restaurantRepositoryService.findRestaurantsByItemName(latitude, longitude,
+            searchFor, currentTime, servingRadiusInKms)));
+    sources.put("itemAttributes", searchAsync("itemAttributes", deadlineMillis, fields,
+        () -> restaurantRepositoryService.findRestaurantsByItemAttributes(latitude, longitude,
+            searchFor, currentTime, servingRadiusInKms)));
 
+    // Sources still running at the deadline, or once the page is full, are cancelled and left
+    // out of the response, like those the saturated executor rejected.
+    boolean partial = false;
+    for (Map.Entry<String, Future<List<Restaurant>>> source : sources.entrySet()) {
+      if (searchPage.isFull()) {
+        source.getValue().cancel(true);
+        continue;
+      }
       try {
-        while (true) {
-          if (futureRestaurantsByName.isDone() && futureRestaurantsByAttributes.isDone()) {
-            restaurantsByName = futureRestaurantsByName.get();
-            restaurantsByAttributes = futureRestaurantsByAttributes.get();
-            log.info("Time taken in millis: " + (System.currentTimeMillis() - startTime));
-            break;
-          }
+        if (deadlineMillis == NO_DEADLINE) {
+          searchPage.addAll(source.getValue().get());
+        } else {
+          long remainingMillis = Math.max(0, deadlineMillis - System.currentTimeMillis());
+          searchPage.addAll(source.getValue().get(remainingMillis, TimeUnit.MILLISECONDS));
+        }
+      } catch (TimeoutException e) {
+        source.getValue().cancel(true);
+        meterRegistry.counter(METRIC_PREFIX + ".timeouts", "source", source.getKey())
+            .increment();
+        log.warn("Search by {} missed the {} ms deadline for {}", source.getKey(),
+            searchDeadlineInMillis, searchFor);
+        partial = true;
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof RejectedExecutionException)) {
+          log.error("Search by {} failed", source.getKey(), e.getCause());
         }
-      } catch (InterruptedException | ExecutionException e) {
-        e.printStackTrace();
-        return new GetRestaurantsResponse(new ArrayList<>());
+        partial = true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        sources.values().forEach(future -> future.cancel(true));
+        partial = true;
+        break;
       }
+    }
 
-      Map<String,Restaurant> restaurantMap = new HashMap<>();
-      for (Restaurant r: restaurantsByName) {
-        restaurantMap.put(r.getRestaurantId(), r);
-      }
-      for (Restaurant r: restaurantsByAttributes) {
-        restaurantMap.put(r.getRestaurantId(), r);
-      }
-      restaurants = new ArrayList<>(restaurantMap.values());
-    } else {
-      restaurants = new ArrayList<>();
+    GetRestaurantsResponse response = toResponse(searchPage);
+    response.setPartial(partial);
+    return response;
+  }
+
+  /**
+   * Runs one search source on the search executor with the request's deadline (unless it has
+   * none) and fields propagated to its queries, recording how long it took under
+   * {@code qeats.search.source}.
+   * @return the pending result, failed with a {@link RejectedExecutionException} when the
+   *     executor is saturated
+   */
+  private Future<List<Restaurant>> searchAsync(String source, long deadlineMillis,
+      RestaurantFields fields, Supplier<List<Restaurant>> search) {
+    Supplier<List<Restaurant>> withinDeadline = deadlineMillis == NO_DEADLINE
+        ? search : () -> SearchDeadline.runWithin(deadlineMillis, search);
+    try {
+      return searchExecutor.submit(() -> {
+        long startTime = System.nanoTime();
+        String outcome = "error";
+        try {
+          List<Restaurant> restaurants = SearchProjection.runWith(fields, withinDeadline);
+          outcome = "success";
+          return restaurants;
+        } finally {
+          meterRegistry.timer(METRIC_PREFIX, "source", source, "outcome", outcome)
+              .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      meterRegistry.counter(METRIC_PREFIX + ".rejections", "source", source).increment();
+      log.warn("Search by {} rejected by the saturated search executor", source);
+      CompletableFuture<List<Restaurant>> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(e);
+      return rejected;
     }
+  }
 
-    return new GetRestaurantsResponse(restaurants);
+  @Override
+  public GetSuggestionsResponse findSuggestions(String prefix, int limit) {
+    if (suggestionIndex == null) {
+      return new GetSuggestionsResponse(new ArrayList<>());
+    }
+    return new GetSuggestionsResponse(suggestionIndex.suggest(prefix, limit));
   }
-}
 
+  private GetRestaurantsResponse toResponse(SearchPage searchPage) {
+    GetRestaurantsResponse response = new GetRestaurantsResponse(searchPage.getRestaurants());
+    response.setNextCursor(searchPage.getNextCursor());
+    return response;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.services;
+
+import com.crio.qeats.dto.Restaurant;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects one page of search results from the search sources, taken in order.
+ *   - A restaurant found by several sources is kept at its first position only.
+ *   - The page starts after the restaurants already returned for the previous cursor, and holds
+ *     at most {@code limit} of them, or all the rest without a limit.
+ *   - Once the page and one restaurant beyond it (to know whether there is a next page) are
+ *     found, the page is full and the remaining sources need not be queried.
+ */
+public class SearchPage {
+
+  private final int offset;
+  private final Integer limit;
+  private final List<Restaurant> restaurants = new ArrayList<>();
+  private final Set<String> restaurantIdSet = new HashSet<>();
+
+  /**
+   * Starts a page.
+   * @param cursor cursor returned with the previous page, null for the first page
+   * @param limit maximum number of restaurants on the page, null for no limit
+   * @throws IllegalArgumentException if the cursor is malformed or the limit is not positive
+   */
+  public SearchPage(String cursor, Integer limit) {
+    if (limit != null && limit < 1) {
+      throw new IllegalArgumentException("Limit must be positive: " + limit);
+    }
+    this.offset = decodeCursor(cursor);
+    this.limit = limit;
+  }
+
+  public boolean isFull() {
+    return limit != null && restaurants.size() > end();
+  }
+
+  /**
+   * Adds the results of the next source, skipping restaurants already found, until full.
+   */
+  public void addAll(List<Restaurant> sourceRestaurants) {
+    for (Restaurant restaurant : sourceRestaurants) {
+      if (isFull()) {
+        return;
+      }
+      if (restaurantIdSet.add(restaurant.getRestaurantId())) {
+        restaurants.add(restaurant);
+      }
+    }
+  }
+
+  public List<Restaurant> getRestaurants() {
+    int end = (int) Math.min(restaurants.size(), end());
+    if (offset >= end) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(restaurants.subList(offset, end));
+  }
+
+  /**
+   * Get the cursor of the next page.
+   * @return the cursor, or null if this is the last page
+   */
+  public String getNextCursor() {
+    // A full page has more restaurants than end(), so end() fits in an int.
+    return isFull() ? encodeCursor((int) end()) : null;
+  }
+
+  // Position after the last restaurant of the page, in long since a cursor near
+  // Integer.MAX_VALUE plus the limit overflows an int.
+  private long end() {
+    return limit == null ? Long.MAX_VALUE : (long) offset + limit;
+  }
+
+  static String encodeCursor(int offset) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(Integer.toString(offset).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static int decodeCursor(String cursor) {
+    if (cursor == null || cursor.isEmpty()) {
+      return 0;
+    }
+    try {
+      int offset = Integer.parseInt(
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+      if (offset < 0) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+      }
+      return offset;
+    } catch (IllegalArgumentException e) {
+      // Also covers the NumberFormatException of a cursor that does not decode to a number.
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Deadline of the search request the current thread is working for, so that the queries made
+ * on its behalf can be bounded by the time the request has left.
+ */
+public final class SearchDeadline {
+
+  private static final ThreadLocal<Long> DEADLINE_MILLIS = new ThreadLocal<>();
+
+  private SearchDeadline() {
+  }
+
+  /**
+   * Runs the search with the given deadline set on the current thread.
+   * @param deadlineMillis epoch millis by which the search should be done
+   */
+  public static <T> T runWithin(long deadlineMillis, Supplier<T> search) {
+    Long previousDeadline = DEADLINE_MILLIS.get();
+    DEADLINE_MILLIS.set(deadlineMillis);
+    try {
+      return search.get();
+    } finally {
+      if (previousDeadline == null) {
+        DEADLINE_MILLIS.remove();
+      } else {
+        DEADLINE_MILLIS.set(previousDeadline);
+      }
+    }
+  }
+
+  /**
+   * Get the time left before the deadline of the current thread.
+   * @return millis left, at least 1, or -1 if the thread has no deadline
+   */
+  public static long remainingMillis() {
+    Long deadlineMillis = DEADLINE_MILLIS.get();
+    if (deadlineMillis == null) {
+      return -1;
+    }
+    return Math.max(1, deadlineMillis - System.currentTimeMillis());
+  }
+}
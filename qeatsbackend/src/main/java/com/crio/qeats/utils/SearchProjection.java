@@ -0,0 +1,48 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import com.crio.qeats.exchanges.RestaurantFields;
+import java.util.function.Supplier;
+
+/**
+ * Restaurant fields the search request the current thread is working for asked for, so that
+ * the queries made on its behalf read no more of the restaurant documents than that.
+ */
+public final class SearchProjection {
+
+  private static final ThreadLocal<RestaurantFields> FIELDS = new ThreadLocal<>();
+
+  private SearchProjection() {
+  }
+
+  /**
+   * Runs the search with the given fields set on the current thread.
+   */
+  public static <T> T runWith(RestaurantFields fields, Supplier<T> search) {
+    RestaurantFields previousFields = FIELDS.get();
+    FIELDS.set(fields);
+    try {
+      return search.get();
+    } finally {
+      if (previousFields == null) {
+        FIELDS.remove();
+      } else {
+        FIELDS.set(previousFields);
+      }
+    }
+  }
+
+  /**
+   * Get the fields of the current thread.
+   * @return fields asked for, all of them if the thread has none set
+   */
+  public static RestaurantFields fields() {
+    RestaurantFields fields = FIELDS.get();
+    return fields == null ? RestaurantFields.ALL : fields;
+  }
+}
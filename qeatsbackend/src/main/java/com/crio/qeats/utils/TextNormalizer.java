@@ -0,0 +1,106 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes catalog text once, when restaurants are loaded or updated, so that requests only
+ * ever copy the results:
+ *   - display form: what the API returns, eg. "CafÃ©" (UTF-8 read as Windows-1252) -> "Cafe".
+ *   - search form: display-independent key the search tokens are cut from, eg. "café" -> "cafe".
+ */
+public final class TextNormalizer {
+
+  // Characters Windows-1252 has in place of the Latin-1 controls 0x80-0x9F -> their byte.
+  private static final Map<Character, Byte> WINDOWS_1252_BYTES = windows1252Bytes();
+  // Characters the apps cannot render in restaurant names, shown as "e" since the first release.
+  private static final Pattern UNRENDERABLE_CHARACTERS = Pattern.compile("[Â©éí]");
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+  private TextNormalizer() {
+  }
+
+  /**
+   * Get the name of a restaurant as returned by the API.
+   */
+  public static String displayName(String name) {
+    if (name == null) {
+      return null;
+    }
+    return UNRENDERABLE_CHARACTERS.matcher(repairMojibake(name)).replaceAll("e");
+  }
+
+  /**
+   * Get the text with mojibake repaired, accents stripped and lower cased.
+   */
+  public static String searchForm(String text) {
+    if (text == null) {
+      return null;
+    }
+    return COMBINING_MARKS.matcher(Normalizer.normalize(repairMojibake(text), Normalizer.Form.NFD))
+        .replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Get the text as it was written when it is UTF-8 that was decoded as Windows-1252 or
+   * Latin-1 somewhere on the way into the catalog, eg. "CafÃ©" -> "Café".
+   * Text that does not read back as valid UTF-8 is returned unchanged.
+   */
+  public static String repairMojibake(String text) {
+    if (text == null || !hasUtf8LeadCharacter(text)) {
+      return text;
+    }
+    byte[] bytes = new byte[text.length()];
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c <= 0xFF) {
+        bytes[i] = (byte) c;
+      } else if (WINDOWS_1252_BYTES.containsKey(c)) {
+        bytes[i] = WINDOWS_1252_BYTES.get(c);
+      } else {
+        return text;
+      }
+    }
+    try {
+      return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+    } catch (CharacterCodingException e) {
+      return text;
+    }
+  }
+
+  // Whether the text has a character that reads as the lead byte of a 2-4 byte UTF-8 sequence.
+  private static boolean hasUtf8LeadCharacter(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c >= '\u00C2' && c <= '\u00F4') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Map<Character, Byte> windows1252Bytes() {
+    Map<Character, Byte> windows1252Bytes = new HashMap<>();
+    Charset windows1252 = Charset.forName("windows-1252");
+    for (int b = 0x80; b <= 0x9F; b++) {
+      char c = new String(new byte[] {(byte) b}, windows1252).charAt(0);
+      if (c != '\uFFFD') {
+        windows1252Bytes.put(c, (byte) b);
+      }
+    }
+    return windows1252Bytes;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.crio.qeats.dto.Restaurant;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class CacheCodecsTest {
+
+  @ParameterizedTest
+  @CsvSource({"json, -1", "smile, -1", "json, 0", "smile, 0", "smile, 100000"})
+  public void entryRoundTrips(String format, int compressionThreshold) throws IOException {
+    CacheCodec<CloseByCacheEntry> codec =
+        CacheCodecs.forFormat(format, CloseByCacheEntry.class, compressionThreshold);
+    CloseByCacheEntry entry = new CloseByCacheEntry(1234L, restaurantIds(20));
+    entry.setHardExpiresAtMillis(5678L);
+    entry.setLoadMillis(12L);
+
+    assertEquals(entry, codec.decode(codec.encode(entry)));
+  }
+
+  @ParameterizedTest
+  @CsvSource({"json", "smile"})
+  public void restaurantRoundTrips(String format) throws IOException {
+    CacheCodec<Restaurant> codec = CacheCodecs.forFormat(format, Restaurant.class, -1);
+    Restaurant restaurant = new Restaurant("10", "A2B", "Hsr Layout", "www.google.com",
+        20.027, 30.0, "18:00", "23:00", new ArrayList<>(Arrays.asList("Tamil", "South Indian")));
+
+    assertEquals(restaurant, codec.decode(codec.encode(restaurant)));
+  }
+
+  @Test
+  public void unknownFormatIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CacheCodecs.forFormat("xml", CloseByCacheEntry.class, -1));
+  }
+
+  private List<String> restaurantIds(int count) {
+    List<String> restaurantIds = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      restaurantIds.add(String.valueOf(i));
+    }
+    return restaurantIds;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crio.qeats.configs.RedisClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CloseByRestaurantCacheTest {
+
+  private static final String KEY = "closeby:v1:tdr1;2019-01-01T12:00";
+  private static final long LOAD_MILLIS = 1000;
+
+  private final RedisClient redisClient = mock(RedisClient.class);
+
+  private CloseByRestaurantCache closeByRestaurantCache;
+
+  @BeforeEach
+  public void setUp() {
+    when(redisClient.isAvailable()).thenReturn(true);
+    closeByRestaurantCache = newCache(CloseByRestaurantCache.DEGRADED_MODE_LOCAL);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    closeByRestaurantCache.shutdown();
+  }
+
+  @Test
+  public void localHitDoesNotGoToRedis() throws Exception {
+    CloseByCacheEntry entry = entry(60000);
+    closeByRestaurantCache.put(KEY, entry);
+
+    assertSame(entry, closeByRestaurantCache.get(KEY));
+    verify(redisClient).execute(eq("closeby.put"), any());
+    verify(redisClient, never()).execute(eq("closeby.get"), any());
+  }
+
+  @Test
+  public void localMissIsFilledFromRedis() throws Exception {
+    CloseByCacheEntry entry = entry(60000);
+    doReturn(CacheCodecs.forFormat(CacheCodecs.JSON, CloseByCacheEntry.class, -1).encode(entry))
+        .when(redisClient).execute(eq("closeby.get"), any());
+
+    assertEquals(entry, closeByRestaurantCache.get(KEY));
+    assertEquals(entry, closeByRestaurantCache.get(KEY));
+    verify(redisClient, times(1)).execute(eq("closeby.get"), any());
+  }
+
+  @Test
+  public void softExpiredEntryIsServedWhileOneBackgroundRefreshRuns() throws Exception {
+    CloseByCacheEntry staleEntry = entry(-1);
+    closeByRestaurantCache.put(KEY, staleEntry);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch releaseLoader = new CountDownLatch(1);
+    CloseByRestaurantCache.Loader loader = stale -> {
+      loads.incrementAndGet();
+      awaitQuietly(releaseLoader);
+      return entry(60000, "12");
+    };
+
+    for (int i = 0; i < 5; i++) {
+      assertSame(staleEntry, closeByRestaurantCache.get(KEY, loader));
+    }
+    releaseLoader.countDown();
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (closeByRestaurantCache.get(KEY) == staleEntry
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(Collections.singletonList("12"),
+        closeByRestaurantCache.get(KEY).getRestaurantIds());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  public void backgroundRefreshIsHandedTheEntryItReplaces() throws Exception {
+    CloseByCacheEntry staleEntry = entry(-1);
+    closeByRestaurantCache.put(KEY, staleEntry);
+    List<CloseByCacheEntry> staleEntries = Collections.synchronizedList(new ArrayList<>());
+
+    closeByRestaurantCache.get(KEY, stale -> {
+      staleEntries.add(stale);
+      return entry(60000, "12");
+    });
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (closeByRestaurantCache.get(KEY) == staleEntry
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(Collections.singletonList(staleEntry), staleEntries);
+  }
+
+  @Test
+  public void hardExpiredEntryIsLoadedByTheCaller() throws Exception {
+    CloseByCacheEntry expiringEntry = entry(-1);
+    expiringEntry.setHardExpiresAtMillis(System.currentTimeMillis() + 100);
+    closeByRestaurantCache.put(KEY, expiringEntry);
+    Thread.sleep(200);
+    List<Thread> loaderThreads = new ArrayList<>();
+
+    CloseByCacheEntry entry = closeByRestaurantCache.get(KEY, stale -> {
+      assertNull(stale);
+      loaderThreads.add(Thread.currentThread());
+      return entry(60000, "12");
+    });
+
+    assertEquals(Collections.singletonList("12"), entry.getRestaurantIds());
+    assertEquals(Collections.singletonList(Thread.currentThread()), loaderThreads);
+  }
+
+  @Test
+  public void breakerOpenInLocalModeServesFromLocalCacheAlone() throws Exception {
+    when(redisClient.isAvailable()).thenReturn(false);
+    AtomicInteger loads = new AtomicInteger();
+    CloseByRestaurantCache.Loader loader = stale -> {
+      loads.incrementAndGet();
+      return entry(60000);
+    };
+
+    CloseByCacheEntry entry = closeByRestaurantCache.get(KEY, loader);
+
+    assertSame(entry, closeByRestaurantCache.get(KEY, loader));
+    assertEquals(1, loads.get());
+    verify(redisClient, never()).execute(any(), any());
+  }
+
+  @Test
+  public void breakerOpenInMongoModeLoadsEveryRequest() throws Exception {
+    CloseByRestaurantCache mongoDegradedCache =
+        newCache(CloseByRestaurantCache.DEGRADED_MODE_MONGO);
+    when(redisClient.isAvailable()).thenReturn(false);
+    AtomicInteger loads = new AtomicInteger();
+    CloseByRestaurantCache.Loader loader = stale -> {
+      loads.incrementAndGet();
+      return entry(60000);
+    };
+
+    try {
+      mongoDegradedCache.get(KEY, loader);
+      mongoDegradedCache.get(KEY, loader);
+
+      assertEquals(2, loads.get());
+      verify(redisClient, never()).execute(any(), any());
+    } finally {
+      mongoDegradedCache.shutdown();
+    }
+  }
+
+  @Test
+  public void refreshesOnlyPastSoftExpiryWhenTheDrawIsOne() {
+    // ln(1) = 0: no early refresh at all.
+    closeByRestaurantCache.random = () -> 1.0;
+
+    assertFalse(closeByRestaurantCache.shouldRefresh(entry(1)));
+    assertTrue(closeByRestaurantCache.shouldRefresh(entry(-1)));
+  }
+
+  @Test
+  public void refreshesEarlyByLoadMillisTimesBetaTimesMinusLnOfTheDraw() {
+    // -ln(e^-2) = 2: refreshes up to 2 x 1000 ms before the soft expiry.
+    closeByRestaurantCache.random = () -> Math.exp(-2);
+
+    assertTrue(closeByRestaurantCache.shouldRefresh(entry(1500)));
+    assertFalse(closeByRestaurantCache.shouldRefresh(entry(2500)));
+
+    ReflectionTestUtils.setField(closeByRestaurantCache, "refreshBeta", 2.0);
+
+    assertTrue(closeByRestaurantCache.shouldRefresh(entry(3500)));
+    assertFalse(closeByRestaurantCache.shouldRefresh(entry(4500)));
+  }
+
+  @Test
+  public void zeroBetaDisablesEarlyRefresh() {
+    ReflectionTestUtils.setField(closeByRestaurantCache, "refreshBeta", 0.0);
+    closeByRestaurantCache.random = () -> Double.MIN_VALUE;
+
+    assertFalse(closeByRestaurantCache.shouldRefresh(entry(1000)));
+    assertTrue(closeByRestaurantCache.shouldRefresh(entry(-1)));
+  }
+
+  private CloseByRestaurantCache newCache(String degradedMode) {
+    CloseByRestaurantCache cache = new CloseByRestaurantCache();
+    ReflectionTestUtils.setField(cache, "redisClient", redisClient);
+    ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(cache, "localMaximumSize", 100L);
+    ReflectionTestUtils.setField(cache, "localMaxTtlInMillis", 60000L);
+    ReflectionTestUtils.setField(cache, "codecFormat", CacheCodecs.JSON);
+    ReflectionTestUtils.setField(cache, "compressionThresholdInBytes", -1);
+    ReflectionTestUtils.setField(cache, "staleGraceInMillis", 60000L);
+    ReflectionTestUtils.setField(cache, "refreshBeta", 1.0);
+    ReflectionTestUtils.setField(cache, "refreshThreads", 1);
+    ReflectionTestUtils.setField(cache, "refreshQueueCapacity", 10);
+    ReflectionTestUtils.setField(cache, "degradedMode", degradedMode);
+    cache.init();
+    return cache;
+  }
+
+  private CloseByCacheEntry entry(long softExpiresInMillis) {
+    return entry(softExpiresInMillis, "11");
+  }
+
+  // Entry that took LOAD_MILLIS to compute and soft expires the given millis from now.
+  private CloseByCacheEntry entry(long softExpiresInMillis, String restaurantId) {
+    CloseByCacheEntry entry = new CloseByCacheEntry(
+        System.currentTimeMillis() + softExpiresInMillis,
+        new ArrayList<>(Collections.singletonList(restaurantId)));
+    entry.setHardExpiresAtMillis(entry.getSoftExpiresAtMillis() + 60000);
+    entry.setLoadMillis(LOAD_MILLIS);
+    return entry;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import com.crio.qeats.configs.PreparedResponseConverter;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class CompressedResponseCacheTest {
+
+  @Test
+  public void gzipInflatesToTheJsonDocument() throws IOException {
+    List<byte[]> restaurants = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      restaurants.add(("{\"restaurantId\":\"" + i + "\",\"name\":\"A2B\"}")
+          .getBytes(StandardCharsets.UTF_8));
+    }
+    PreparedRestaurantsResponse response = new PreparedRestaurantsResponse(restaurants, "etag");
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    PreparedResponseConverter.writeTo(response, json);
+
+    byte[] gzip = CompressedResponseCache.gzip(response);
+
+    assertArrayEquals(json.toByteArray(), inflate(gzip));
+  }
+
+  private static byte[] inflate(byte[] gzip) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+      byte[] buffer = new byte[4096];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        bytes.write(buffer, 0, read);
+      }
+    }
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crio.qeats.configs.RedisClient;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RestaurantCatalogTest {
+
+  private final RedisClient redisClient = mock(RedisClient.class);
+  private final RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+
+  private RestaurantCatalog restaurantCatalog;
+
+  @BeforeEach
+  public void setUp() {
+    restaurantCatalog = new RestaurantCatalog();
+    ReflectionTestUtils.setField(restaurantCatalog, "redisClient", redisClient);
+    ReflectionTestUtils.setField(restaurantCatalog, "restaurantRepository", restaurantRepository);
+    ReflectionTestUtils.setField(restaurantCatalog, "localMaximumSize", 100L);
+    ReflectionTestUtils.setField(restaurantCatalog, "localTtlInMillis", 60000L);
+    ReflectionTestUtils.setField(restaurantCatalog, "negativeTtlInMillis", 60000L);
+    ReflectionTestUtils.setField(restaurantCatalog, "codecFormat", CacheCodecs.JSON);
+    restaurantCatalog.init();
+  }
+
+  @Test
+  public void restaurantsFoundNowhereAreNotLookedUpAgainUntilPut() {
+    when(redisClient.isAvailable()).thenReturn(false);
+    when(restaurantRepository.findRestaurantsByRestaurantIdIn(any()))
+        .thenReturn(Optional.of(new ArrayList<>(Collections.singletonList(restaurant("11")))));
+
+    assertEquals(Arrays.asList("11"), ids(restaurantCatalog.getAll(Arrays.asList("11", "12"))));
+    assertEquals(Arrays.asList("11"), ids(restaurantCatalog.getAll(Arrays.asList("11", "12"))));
+    verify(restaurantRepository, times(1)).findRestaurantsByRestaurantIdIn(any());
+
+    restaurantCatalog.putAll(Collections.singletonList(restaurant("12")));
+
+    assertEquals(Arrays.asList("11", "12"),
+        ids(restaurantCatalog.getAll(Arrays.asList("11", "12"))));
+    verify(restaurantRepository, times(1)).findRestaurantsByRestaurantIdIn(any());
+  }
+
+  @Test
+  public void everyRestaurantHasItsOwnRedisKey() {
+    assertEquals("restaurants:catalog:v3:11",
+        new String(RestaurantCatalog.redisKey("11"), StandardCharsets.UTF_8));
+  }
+
+  private static RestaurantEntity restaurant(String restaurantId) {
+    RestaurantEntity restaurantEntity = new RestaurantEntity();
+    restaurantEntity.setId("doc" + restaurantId);
+    restaurantEntity.setRestaurantId(restaurantId);
+    restaurantEntity.setName("Restaurant " + restaurantId);
+    return restaurantEntity;
+  }
+
+  private static List<String> ids(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+}
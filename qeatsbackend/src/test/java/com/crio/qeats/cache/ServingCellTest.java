@@ -0,0 +1,56 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.utils.GeoUtils;
+import java.time.LocalTime;
+import org.junit.jupiter.api.Test;
+
+class ServingCellTest {
+
+  @Test
+  public void cellIsSizedRelativeToServingRadius() {
+    assertEquals(27, ServingCell.bitPrecisionFor(3.0));
+    assertEquals(25, ServingCell.bitPrecisionFor(5.0));
+  }
+
+  @Test
+  public void nearbyUsersShareCellAndKeyDependsOnRadius() {
+    ServingCell first = ServingCell.of(12.9716, 77.5946, 3.0);
+    ServingCell second = ServingCell.of(12.9726, 77.5956, 3.0);
+
+    assertEquals(first.getCacheKey(), second.getCacheKey());
+    assertNotEquals(first.getCacheKey(), ServingCell.of(12.9716, 77.5946, 5.0).getCacheKey());
+  }
+
+  @Test
+  public void supersetCoversServingCircleOfEveryUserInCell() {
+    double latitude = 20.0;
+    double longitude = 30.0;
+    ServingCell servingCell = ServingCell.of(latitude, longitude, 3.0);
+
+    double userToCentre = GeoUtils.findDistanceInKm(latitude, longitude,
+        servingCell.getCentreLatitude(), servingCell.getCentreLongitude());
+    assertTrue(userToCentre + 3.0 <= servingCell.getSupersetRadiusInKms());
+  }
+
+  @Test
+  public void cacheKeyChangesWithTimeWindow() {
+    ServingCell servingCell = ServingCell.of(20.0, 30.0, 3.0);
+
+    assertEquals(servingCell.getCacheKey(LocalTime.of(18, 1)),
+        servingCell.getCacheKey(LocalTime.of(18, 29)));
+    assertNotEquals(servingCell.getCacheKey(LocalTime.of(17, 59)),
+        servingCell.getCacheKey(LocalTime.of(18, 1)));
+    assertEquals(LocalTime.of(18, 30).toNanoOfDay(),
+        ServingCell.getTimeWindowEndNanos(LocalTime.of(18, 1)));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  @Test
+  public void concurrentLoadsOfSameKeyRunLoaderOnce() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch loaderStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoader = new CountDownLatch(1);
+    ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      results.add(executorService.submit(() -> singleFlight.load("cell", () -> {
+        loads.incrementAndGet();
+        loaderStarted.countDown();
+        awaitQuietly(releaseLoader);
+        return "restaurants";
+      })));
+      loaderStarted.await(5, TimeUnit.SECONDS);
+      for (int i = 0; i < 7; i++) {
+        results.add(executorService.submit(() -> singleFlight.load("cell", () -> {
+          loads.incrementAndGet();
+          return "restaurants";
+        })));
+      }
+      // Give the followers time to join the flight before letting the leader finish.
+      Thread.sleep(200);
+      releaseLoader.countDown();
+
+      for (Future<String> result : results) {
+        assertEquals("restaurants", result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+      assertEquals(0, singleFlight.inFlightCount());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedLoadIsNotRemembered() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    assertThrows(IllegalStateException.class, () -> singleFlight.load("cell", () -> {
+      throw new IllegalStateException("mongo down");
+    }));
+    assertEquals("restaurants", singleFlight.load("cell", () -> "restaurants"));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
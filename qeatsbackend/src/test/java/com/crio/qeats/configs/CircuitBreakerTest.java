@@ -0,0 +1,95 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.configs.CircuitBreaker.State;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final AtomicLong now = new AtomicLong(1_000L);
+  private final CircuitBreaker circuitBreaker =
+      new CircuitBreaker(10, 4, 0.5, 5_000L, 2, now::get);
+
+  @Test
+  public void staysClosedBelowMinimumCalls() {
+    fail(3);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void opensAtFailureRateThreshold() {
+    succeed(2);
+    fail(2);
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void oldCallsLeaveTheWindow() {
+    fail(3);
+    succeed(10);
+    fail(4);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  public void halfOpenTrialCallsCloseTheBreaker() {
+    List<State> transitions = new ArrayList<>();
+    circuitBreaker.setTransitionListener((from, to) -> transitions.add(to));
+    fail(4);
+    now.addAndGet(5_000L);
+
+    assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+    assertTrue(circuitBreaker.tryAcquire());
+    assertTrue(circuitBreaker.tryAcquire());
+    assertFalse(circuitBreaker.tryAcquire());
+    circuitBreaker.onSuccess();
+    circuitBreaker.onSuccess();
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertEquals(3, transitions.size());
+    assertEquals(State.CLOSED, transitions.get(2));
+  }
+
+  @Test
+  public void halfOpenFailureReopensTheBreaker() {
+    fail(4);
+    now.addAndGet(5_000L);
+
+    assertTrue(circuitBreaker.tryAcquire());
+    circuitBreaker.onFailure();
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  private void succeed(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onSuccess();
+    }
+  }
+
+  private void fail(int calls) {
+    for (int i = 0; i < calls; i++) {
+      assertTrue(circuitBreaker.tryAcquire());
+      circuitBreaker.onFailure();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.configs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class PreparedResponseConverterTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PreparedResponseConverter converter = new PreparedResponseConverter();
+
+  @Test
+  public void writesTheSameJsonAsJackson() throws IOException {
+    List<Restaurant> restaurants = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/mocking_list_of_restaurants.json"),
+        new TypeReference<List<Restaurant>>() {
+        });
+    assertFalse(restaurants.isEmpty());
+    List<byte[]> preparedRestaurants = new ArrayList<>();
+    for (Restaurant restaurant : restaurants) {
+      preparedRestaurants.add(objectMapper.writeValueAsBytes(restaurant));
+    }
+
+    MockHttpOutputMessage outputMessage = write(preparedRestaurants);
+
+    String expected = objectMapper.writeValueAsString(new GetRestaurantsResponse(restaurants));
+    assertEquals(expected, outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+    assertEquals(expected.getBytes(StandardCharsets.UTF_8).length,
+        outputMessage.getHeaders().getContentLength());
+  }
+
+  @Test
+  public void writesNoRestaurants() throws IOException {
+    MockHttpOutputMessage outputMessage = write(Collections.emptyList());
+
+    assertEquals("{\"restaurants\":[]}", outputMessage.getBodyAsString(StandardCharsets.UTF_8));
+    assertEquals(18, outputMessage.getHeaders().getContentLength());
+  }
+
+  private MockHttpOutputMessage write(List<byte[]> preparedRestaurants) throws IOException {
+    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+    converter.write(new PreparedRestaurantsResponse(preparedRestaurants, "etag"),
+        MediaType.APPLICATION_JSON, outputMessage);
+    return outputMessage;
+  }
+}
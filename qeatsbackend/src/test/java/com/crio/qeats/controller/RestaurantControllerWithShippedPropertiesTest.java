@@ -0,0 +1,203 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.controller;
+
+import static com.crio.qeats.controller.RestaurantController.PROTOBUF_MEDIA_TYPE;
+import static com.crio.qeats.controller.RestaurantController.RESTAURANTS_API;
+import static com.crio.qeats.controller.RestaurantController.RESTAURANT_API_ENDPOINT;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsRequest;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.PreparedRestaurantsResponse;
+import com.crio.qeats.mappers.ProtoMapper;
+import com.crio.qeats.services.RestaurantService;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// The controller as configured in production: the test profile leaves the search and close-by
+// response properties to application.properties, and the message converters are registered.
+@SpringBootTest(classes = {QEatsApplication.class})
+@AutoConfigureMockMvc
+@DirtiesContext
+@ActiveProfiles("test")
+class RestaurantControllerWithShippedPropertiesTest {
+
+  private static final String RESTAURANT_API_URI = RESTAURANT_API_ENDPOINT + RESTAURANTS_API
+      + "?latitude=20.21&longitude=30.31";
+  private static final String ETAG = "3f2a";
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private RestaurantService restaurantService;
+
+  @Test
+  void searchRunsTheSourcesConcurrently() throws Exception {
+    when(restaurantService
+        .findRestaurantsBySearchQueryMt(any(GetRestaurantsRequest.class), any(LocalTime.class)))
+        .thenReturn(new GetRestaurantsResponse(new ArrayList<>()));
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI + "&searchFor=Briyani").accept(APPLICATION_JSON_UTF8)
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    verify(restaurantService, times(1))
+        .findRestaurantsBySearchQueryMt(any(GetRestaurantsRequest.class), any(LocalTime.class));
+    verify(restaurantService, never())
+        .findRestaurantsBySearchQuery(any(GetRestaurantsRequest.class), any(LocalTime.class));
+  }
+
+  @Test
+  void closeByRestaurantsAreWrittenFromTheirPreparedJson() throws Exception {
+    when(restaurantService.findAllRestaurantsCloseByPrepared(any(GetRestaurantsRequest.class),
+        any(LocalTime.class))).thenReturn(prepared("{\"restaurantId\":\"11\"}",
+            "{\"restaurantId\":\"12\"}"));
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI).accept(APPLICATION_JSON_UTF8)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    assertEquals("{\"restaurants\":[{\"restaurantId\":\"11\"},{\"restaurantId\":\"12\"}]}",
+        response.getContentAsString());
+    assertEquals("\"" + ETAG + "\"", response.getHeader(HttpHeaders.ETAG));
+    assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING),
+        response.getHeaders(HttpHeaders.VARY).toString());
+    // Smaller than qeats.closeby.gzip.min-bytes.
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  @Test
+  void matchingEtagIsAnsweredWithNotModified() throws Exception {
+    when(restaurantService.findAllRestaurantsCloseByPrepared(any(GetRestaurantsRequest.class),
+        any(LocalTime.class))).thenReturn(prepared("{\"restaurantId\":\"11\"}"));
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI).accept(APPLICATION_JSON_UTF8)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\"")
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void largeResponsesAreGzippedUnderTheirOwnEtag() throws Exception {
+    String first = "{\"restaurantId\":\"11\",\"name\":\"" + Strings.repeat("a", 1024) + "\"}";
+    String second = "{\"restaurantId\":\"12\"}";
+    when(restaurantService.findAllRestaurantsCloseByPrepared(any(GetRestaurantsRequest.class),
+        any(LocalTime.class))).thenReturn(prepared(first, second));
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI).accept(APPLICATION_JSON_UTF8)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("\"" + ETAG + "-gzip\"", response.getHeader(HttpHeaders.ETAG));
+    assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING),
+        response.getHeaders(HttpHeaders.VARY).toString());
+    byte[] json = ByteStreams.toByteArray(
+        new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+    assertArrayEquals(("{\"restaurants\":[" + first + "," + second + "]}")
+        .getBytes(StandardCharsets.UTF_8), json);
+
+    MockHttpServletResponse notModified = mvc.perform(
+        get(RESTAURANT_API_URI).accept(APPLICATION_JSON_UTF8)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "-gzip\"")
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.NOT_MODIFIED.value(), notModified.getStatus());
+
+    // The identity representation has a different ETag, so it is sent whole.
+    MockHttpServletResponse identity = mvc.perform(
+        get(RESTAURANT_API_URI).accept(APPLICATION_JSON_UTF8)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "-gzip\"")
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), identity.getStatus());
+    assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("\"" + ETAG + "\"", identity.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void protobufClientsGetTheRestaurantsInTheWireFormatOfQeatsProto() throws Exception {
+    Restaurant restaurant = new Restaurant("11", "A2B", "Btm Layout", "www.google.com", 20.0269,
+        30.0, "10:00", "23:00", Arrays.asList("Tamil", "South Indian"));
+    GetRestaurantsResponse getRestaurantsResponse =
+        new GetRestaurantsResponse(Arrays.asList(restaurant));
+    when(restaurantService
+        .findAllRestaurantsCloseBy(any(GetRestaurantsRequest.class), any(LocalTime.class)))
+        .thenReturn(getRestaurantsResponse);
+
+    MockHttpServletResponse response = mvc.perform(
+        get(RESTAURANT_API_URI).accept(MediaType.parseMediaType(PROTOBUF_MEDIA_TYPE))
+    ).andReturn().getResponse();
+
+    assertEquals(HttpStatus.OK.value(), response.getStatus());
+    assertTrue(response.getContentType().startsWith(PROTOBUF_MEDIA_TYPE),
+        response.getContentType());
+    assertEquals(getRestaurantsResponse,
+        ProtoMapper.getRestaurantsResponseFromProto(response.getContentAsByteArray()));
+
+    MockHttpServletResponse filtered = mvc.perform(
+        get(RESTAURANT_API_URI + "&fields=name").accept(
+            MediaType.parseMediaType(PROTOBUF_MEDIA_TYPE))
+    ).andReturn().getResponse();
+
+    Restaurant readBack = ProtoMapper.getRestaurantsResponseFromProto(
+        filtered.getContentAsByteArray()).getRestaurants().get(0);
+    assertEquals("11", readBack.getRestaurantId());
+    assertEquals("A2B", readBack.getName());
+    assertNull(readBack.getCity());
+  }
+
+  private static PreparedRestaurantsResponse prepared(String... restaurants) {
+    List<byte[]> json = new ArrayList<>();
+    for (String restaurant : Arrays.asList(restaurants)) {
+      json.add(restaurant.getBytes(StandardCharsets.UTF_8));
+    }
+    return new PreparedRestaurantsResponse(json, ETAG);
+  }
+}
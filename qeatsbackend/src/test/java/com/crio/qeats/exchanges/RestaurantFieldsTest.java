@@ -0,0 +1,58 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.exchanges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.crio.qeats.dto.Restaurant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class RestaurantFieldsTest {
+
+  private final Restaurant restaurant = new Restaurant("10", "A2B", "Btm Layout",
+      "www.google.com", 20.0, 30.0, "10:00", "23:00", Arrays.asList("Tamil", "South Indian"));
+
+  @Test
+  public void absentOrBlankMeansAllFields() {
+    assertSame(RestaurantFields.ALL, RestaurantFields.parse(null));
+    assertSame(RestaurantFields.ALL, RestaurantFields.parse(" "));
+  }
+
+  @Test
+  public void restaurantIdIsAlwaysIncluded() {
+    RestaurantFields fields = RestaurantFields.parse("name, imageUrl,");
+
+    assertEquals(ImmutableSet.of("restaurantId", "name", "imageUrl"), fields.getNames());
+    assertFalse(fields.isAll());
+    assertEquals(fields, RestaurantFields.parse("imageUrl,name,restaurantId"));
+  }
+
+  @Test
+  public void unknownFieldIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> RestaurantFields.parse("name,rating"));
+  }
+
+  @Test
+  public void filterLeavesOnlyTheFieldsAskedFor() throws IOException {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .addMixIn(Restaurant.class, RestaurantFields.FilterMixIn.class);
+
+    String json = objectMapper
+        .writer(RestaurantFields.parse("name,latitude,longitude").toFilterProvider())
+        .writeValueAsString(restaurant);
+
+    assertEquals("{\"restaurantId\":\"10\",\"name\":\"A2B\",\"latitude\":20.0,"
+        + "\"longitude\":30.0}", json);
+  }
+}
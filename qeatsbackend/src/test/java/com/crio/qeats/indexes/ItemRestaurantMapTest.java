@@ -0,0 +1,106 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.models.MenuEntity;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ItemRestaurantMapTest {
+
+  private static Item item(String itemId, String... attributes) {
+    return namedItem(itemId, "Item " + itemId, attributes);
+  }
+
+  private static Item namedItem(String itemId, String name, String... attributes) {
+    Item item = new Item();
+    item.setItemId(itemId);
+    item.setName(name);
+    item.setAttributes(new ArrayList<>(Arrays.asList(attributes)));
+    return item;
+  }
+
+  private static MenuEntity menu(String restaurantId, Item... items) {
+    List<Item> itemList = new ArrayList<>(Arrays.asList(items));
+    return new MenuEntity("menu" + restaurantId, restaurantId, itemList);
+  }
+
+  @Test
+  public void findsRestaurantsServingItems() {
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    index.upsertMenu(menu("11", item("1", "Mughal"), item("2", "Sweet")));
+    index.upsertMenu(menu("12", item("1", "Mughal")));
+    index.upsertMenu(menu("13", item("3", "South Indian")));
+
+    assertEquals(ImmutableSet.of("11", "12"),
+        index.findRestaurantsServingItems(Arrays.asList("1")));
+    assertEquals(ImmutableSet.of("11", "13"),
+        index.findRestaurantsServingItems(Arrays.asList("2", "3")));
+  }
+
+  @Test
+  public void everyAttributeTokenMustMatchTheSameItem() {
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    index.upsertMenu(menu("11", item("1", "Mughal"), item("2", "Sweet")));
+    index.upsertMenu(menu("12", item("3", "Mughal", "Sweet")));
+
+    assertEquals(ImmutableSet.of("11", "12"), index.findRestaurantsServingItemAttributes("MUGHAL"));
+    assertEquals(ImmutableSet.of("12"), index.findRestaurantsServingItemAttributes("mughal sweet"));
+    assertTrue(index.findRestaurantsServingItemAttributes(" ").isEmpty());
+  }
+
+  @Test
+  public void attributeTokensMatchAnywhereInAToken() {
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    index.upsertMenu(menu("11", item("1", "Vegetarian"), item("2", "Sweet")));
+    index.upsertMenu(menu("12", item("3", "Vegan")));
+    index.upsertMenu(menu("13", item("4", "Non Vegetarian", "Sweet")));
+
+    assertEquals(ImmutableSet.of("11", "12", "13"),
+        index.findRestaurantsServingItemAttributes("veg"));
+    assertEquals(ImmutableSet.of("11", "13"),
+        index.findRestaurantsServingItemAttributes("etarian"));
+    assertEquals(ImmutableSet.of("13"), index.findRestaurantsServingItemAttributes("veg swe"));
+    assertTrue(index.findRestaurantsServingItemAttributes("vegetarians").isEmpty());
+  }
+
+  @Test
+  public void anyNameTokenMayMatch() {
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    index.upsertMenu(menu("11", namedItem("1", "Chicken Biryani")));
+    index.upsertMenu(menu("12", namedItem("2", "Masala Dosa")));
+    index.upsertMenu(menu("13", namedItem("3", "Margherita")));
+
+    assertEquals(ImmutableSet.of("11"), index.findRestaurantsServingItemName("ryani"));
+    assertEquals(ImmutableSet.of("11", "12"),
+        index.findRestaurantsServingItemName("chicken dosa"));
+    assertTrue(index.findRestaurantsServingItemName("pasta").isEmpty());
+    assertTrue(index.findRestaurantsServingItemName(" ").isEmpty());
+  }
+
+  @Test
+  public void upsertReplacesAndRemoveDropsTheMenu() {
+    ItemRestaurantMap index = new ItemRestaurantMap();
+    index.upsertMenu(menu("11", item("1", "Mughal")));
+    index.upsertMenu(menu("11", item("2", "Sweet")));
+
+    assertTrue(index.findRestaurantsServingItems(Arrays.asList("1")).isEmpty());
+    assertTrue(index.findRestaurantsServingItemAttributes("mughal").isEmpty());
+    assertTrue(index.findRestaurantsServingItemName("1").isEmpty());
+
+    index.removeMenu("menu11");
+    assertTrue(index.findRestaurantsServingItems(Arrays.asList("2")).isEmpty());
+    assertEquals(0, index.size());
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.GeoUtils;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RestaurantGridIndexTest {
+
+  private static RestaurantEntity restaurant(String id, double latitude, double longitude) {
+    RestaurantEntity restaurantEntity = new RestaurantEntity();
+    restaurantEntity.setId(id);
+    restaurantEntity.setRestaurantId(id);
+    restaurantEntity.setLatitude(latitude);
+    restaurantEntity.setLongitude(longitude);
+    return restaurantEntity;
+  }
+
+  private static Set<String> ids(List<RestaurantEntity> restaurantEntities) {
+    return restaurantEntities.stream().map(RestaurantEntity::getId).collect(Collectors.toSet());
+  }
+
+  @Test
+  public void candidatesIncludeEveryRestaurantWithinRadius() {
+    RestaurantGridIndex index = new RestaurantGridIndex(0.02);
+    index.upsert(restaurant("10", 20.027, 30.0));
+    index.upsert(restaurant("11", 20.0269, 30.00));
+    index.upsert(restaurant("12", 20.015, 30.015));
+    index.upsert(restaurant("13", 20.8, 30.1));
+
+    Set<String> candidates = ids(index.findCandidates(20.0, 30.0, 3.0));
+
+    assertTrue(candidates.containsAll(ImmutableSet.of("10", "11", "12")));
+    assertFalse(candidates.contains("13"));
+  }
+
+  @Test
+  public void candidatesAreFoundAcrossTheAntimeridian() {
+    RestaurantGridIndex index = new RestaurantGridIndex(0.02);
+    index.upsert(restaurant("east", 10.0, 179.99));
+    index.upsert(restaurant("west", 10.0, -179.99));
+
+    double distance = GeoUtils.findDistanceInKm(10.0, 179.99, 10.0, -179.99);
+    assertTrue(distance < 5.0);
+    assertEquals(ImmutableSet.of("east", "west"), ids(index.findCandidates(10.0, 179.99, 5.0)));
+  }
+
+  @Test
+  public void upsertMovesAndRemoveDropsRestaurant() {
+    RestaurantGridIndex index = new RestaurantGridIndex(0.02);
+    index.upsert(restaurant("10", 20.027, 30.0));
+    index.upsert(restaurant("10", 12.9, 77.6));
+
+    assertEquals(1, index.size());
+    assertTrue(index.findCandidates(20.0, 30.0, 3.0).isEmpty());
+    assertEquals(ImmutableSet.of("10"), ids(index.findCandidates(12.9, 77.6, 1.0)));
+
+    index.remove("10");
+    assertEquals(0, index.size());
+    assertTrue(index.findCandidates(12.9, 77.6, 1.0).isEmpty());
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.indexes.RestaurantTokenIndex.Field;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class RestaurantTokenIndexTest {
+
+  private static RestaurantEntity restaurant(String id, String name, String... attributes) {
+    RestaurantEntity restaurantEntity = new RestaurantEntity();
+    restaurantEntity.setId("doc" + id);
+    restaurantEntity.setRestaurantId(id);
+    restaurantEntity.setName(name);
+    restaurantEntity.setAttributes(new ArrayList<>(Arrays.asList(attributes)));
+    return restaurantEntity;
+  }
+
+  private static MenuEntity menu(String restaurantId, String itemName, String... attributes) {
+    return new MenuEntity("menu" + restaurantId, restaurantId,
+        new ArrayList<>(Arrays.asList(item(restaurantId, itemName, attributes))));
+  }
+
+  private static Item item(String restaurantId, String itemName, String... attributes) {
+    Item item = new Item();
+    item.setItemId(restaurantId + itemName);
+    item.setName(itemName);
+    item.setAttributes(new ArrayList<>(Arrays.asList(attributes)));
+    return item;
+  }
+
+  private static List<String> ids(List<RestaurantEntity> restaurantEntities) {
+    return restaurantEntities.stream().map(RestaurantEntity::getRestaurantId)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void tokensAreFoldedAndSplit() {
+    assertEquals(Arrays.asList("cafe", "coffee", "day"),
+        SearchTokenizer.tokenize("  Café Coffee-DAY "));
+    assertTrue(SearchTokenizer.tokenize(" -- ").isEmpty());
+  }
+
+  @Test
+  public void everyQueryTokenMustMatch() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("10", "A2B Adyar Ananda Bhavan"));
+    index.upsertRestaurant(restaurant("11", "A2B"));
+    index.upsertRestaurant(restaurant("12", "Anand Sweets"));
+
+    assertEquals(Arrays.asList("10", "11"), ids(index.search(Field.NAME, "a2b")));
+    assertEquals(Arrays.asList("10", "12"), ids(index.search(Field.NAME, "anand")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "ANAND a2b")));
+    assertTrue(index.search(Field.NAME, "anand pizza").isEmpty());
+  }
+
+  @Test
+  public void wordsMatchAnywhereInAWord() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("10", "A2B Adyar Ananda Bhavan", "South Indian"));
+    index.upsertMenu(menu("10", "Chicken Biryani", "Spicy"));
+
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "ady")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "yar")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "2b")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.ATTRIBUTES, "dian")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.ITEM_NAME, "ryani")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.ITEM_ATTRIBUTES, "pic")));
+    assertTrue(index.search(Field.NAME, "yard").isEmpty());
+  }
+
+  @Test
+  public void anyWordOfAnItemNameSearchMatches() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("11", "Paradise"));
+    index.upsertRestaurant(restaurant("12", "Saravana Bhavan"));
+    index.upsertRestaurant(restaurant("13", "Pizza Hut"));
+    index.upsertMenu(menu("11", "Chicken Biryani"));
+    index.upsertMenu(menu("12", "Masala Dosa"));
+    index.upsertMenu(menu("13", "Margherita"));
+
+    assertEquals(Arrays.asList("11"), ids(index.search(Field.ITEM_NAME, "biryani chicken")));
+    assertEquals(Arrays.asList("11", "12"), ids(index.search(Field.ITEM_NAME, "chicken dosa")));
+    assertEquals(Arrays.asList("12"), ids(index.search(Field.ITEM_NAME, "pasta dosa")));
+    assertTrue(index.search(Field.ITEM_NAME, "pasta").isEmpty());
+  }
+
+  @Test
+  public void everyWordOfAnItemAttributeSearchMustMatchTheSameItem() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("11", "Paradise"));
+    index.upsertRestaurant(restaurant("12", "Saravana Bhavan"));
+    index.upsertMenu(new MenuEntity("menu11", "11", new ArrayList<>(Arrays.asList(
+        item("11", "Chicken Biryani", "Spicy"), item("11", "Gulab Jamun", "Sweet")))));
+    index.upsertMenu(menu("12", "Mysore Pak", "Spicy", "Sweet"));
+
+    assertEquals(Arrays.asList("11", "12"), ids(index.search(Field.ITEM_ATTRIBUTES, "sweet")));
+    assertEquals(Arrays.asList("12"), ids(index.search(Field.ITEM_ATTRIBUTES, "sweet spicy")));
+  }
+
+  @Test
+  public void namesMatchDespiteTypos() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("10", "Biryani Blues", "Hyderabadi"));
+    index.upsertRestaurant(restaurant("11", "Paradise"));
+    index.upsertMenu(menu("11", "Chicken Briyani", "Spicy"));
+
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "biriyani")));
+    assertEquals(Arrays.asList("11"), ids(index.search(Field.ITEM_NAME, "biryani")));
+    assertEquals(Arrays.asList("11"), ids(index.search(Field.ITEM_NAME, "chiken biryani")));
+    assertTrue(index.search(Field.ATTRIBUTES, "hyderbadi").isEmpty());
+  }
+
+  @Test
+  public void fieldsAreSearchedSeparately() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("10", "Mughal Darbar", "North Indian"));
+    index.upsertRestaurant(restaurant("11", "Paradise", "Hyderabadi"));
+    index.upsertMenu(menu("11", "Chicken Biryani", "Mughal", "Spicy"));
+
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "mughal")));
+    assertEquals(Arrays.asList("11"), ids(index.search(Field.ITEM_ATTRIBUTES, "mughal")));
+    assertEquals(Arrays.asList("11"), ids(index.search(Field.ITEM_NAME, "biryani")));
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.ATTRIBUTES, "indian")));
+  }
+
+  @Test
+  public void upsertReplacesPreviousTokensAndRemoveDropsThem() {
+    RestaurantTokenIndex index = new RestaurantTokenIndex();
+    index.upsertRestaurant(restaurant("10", "Old Name"));
+    index.upsertMenu(menu("10", "Dosa"));
+    index.upsertRestaurant(restaurant("10", "New Name"));
+
+    assertTrue(index.search(Field.NAME, "old").isEmpty());
+    assertEquals(Arrays.asList("10"), ids(index.search(Field.NAME, "new")));
+
+    index.removeMenu("menu10");
+    assertTrue(index.search(Field.ITEM_NAME, "dosa").isEmpty());
+
+    index.removeRestaurant("doc10");
+    assertTrue(index.search(Field.NAME, "name").isEmpty());
+    assertEquals(0, index.size());
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Suggestion;
+import com.crio.qeats.dto.Suggestion.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+  private final SuggestionTrie trie = new SuggestionTrie.Builder()
+      .add("Biryani Blues", Type.RESTAURANT)
+      .add("Hyderabadi Biryani House", Type.RESTAURANT)
+      .add("Chicken Biryani", Type.ITEM)
+      .add("Chicken Biryani", Type.ITEM)
+      .add("Chicken Biryani", Type.ITEM)
+      .add("Bisi Bele Bath", Type.ITEM)
+      .add("Café Mocha", Type.ITEM)
+      .add("Chinese", Type.CUISINE)
+      .add("Chinese", Type.CUISINE)
+      .build(3);
+
+  @Test
+  public void completesFromEveryWordByFrequency() {
+    assertEquals(Arrays.asList("Chicken Biryani", "Biryani Blues", "Hyderabadi Biryani House"),
+        texts(trie.suggest("biry", 10)));
+  }
+
+  @Test
+  public void keepsOnlyTopNPerPrefix() {
+    assertEquals(Arrays.asList("Chicken Biryani", "Biryani Blues", "Bisi Bele Bath"),
+        texts(trie.suggest("b", 10)));
+    assertEquals(1, trie.suggest("b", 1).size());
+  }
+
+  @Test
+  public void matchesInsideCollapsedEdges() {
+    assertEquals(Arrays.asList("Chinese"), texts(trie.suggest("chin", 10)));
+    assertEquals(Arrays.asList("Chicken Biryani"), texts(trie.suggest("chicken bir", 10)));
+    assertEquals(Type.CUISINE, trie.suggest("chinese", 10).get(0).getType());
+  }
+
+  @Test
+  public void normalizesThePrefix() {
+    assertEquals(Arrays.asList("Café Mocha"), texts(trie.suggest("CAFE-m", 10)));
+  }
+
+  @Test
+  public void unknownOrEmptyPrefixHasNoSuggestions() {
+    assertTrue(trie.suggest("pizza", 10).isEmpty());
+    assertTrue(trie.suggest("chickenx", 10).isEmpty());
+    assertTrue(trie.suggest("  ", 10).isEmpty());
+  }
+
+  private static List<String> texts(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SwappableIndexTest {
+
+  @Test
+  public void writesDuringARebuildReachBothVersions() {
+    SwappableIndex<Set<String>> index = new SwappableIndex<>();
+    Set<String> current = new HashSet<>(ImmutableSet.of("11", "12"));
+    index.finishRebuild(current);
+
+    index.beginRebuild();
+    // Read from the collection before these writes.
+    Set<String> rebuilt = new HashSet<>(ImmutableSet.of("11", "12"));
+    index.write(ids -> ids.add("13"));
+    index.write(ids -> ids.remove("11"));
+
+    assertEquals(ImmutableSet.of("12", "13"), current);
+    index.finishRebuild(rebuilt);
+    assertSame(rebuilt, index.get());
+    assertEquals(ImmutableSet.of("12", "13"), rebuilt);
+  }
+
+  @Test
+  public void writesBeforeTheFirstBuildAreReplayedOnIt() {
+    SwappableIndex<Set<String>> index = new SwappableIndex<>();
+    index.beginRebuild();
+    index.write(ids -> ids.add("13"));
+
+    assertNull(index.get());
+    Set<String> built = new HashSet<>(ImmutableSet.of("11"));
+    index.finishRebuild(built);
+    assertEquals(ImmutableSet.of("11", "13"), built);
+  }
+
+  @Test
+  public void writesAreNoLongerQueuedOnceARebuildIsCancelled() {
+    SwappableIndex<Set<String>> index = new SwappableIndex<>();
+    Set<String> current = new HashSet<>();
+    index.finishRebuild(current);
+    index.beginRebuild();
+    index.write(ids -> ids.add("11"));
+    index.cancelRebuild();
+    index.write(ids -> ids.add("12"));
+
+    Set<String> rebuilt = new HashSet<>();
+    index.finishRebuild(rebuilt);
+    assertEquals(ImmutableSet.of("11", "12"), current);
+    assertEquals(ImmutableSet.of(), rebuilt);
+  }
+}
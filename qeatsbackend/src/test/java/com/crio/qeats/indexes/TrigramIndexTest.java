@@ -0,0 +1,77 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+  @Test
+  public void distanceCountsTranspositionsAsOneEdit() {
+    assertEquals(0, TrigramIndex.distance("biryani", "biryani", 2));
+    assertEquals(1, TrigramIndex.distance("briyani", "biryani", 2));
+    assertEquals(1, TrigramIndex.distance("biriyani", "biryani", 2));
+    assertEquals(1, TrigramIndex.distance("briyani", "biriyani", 2));
+    assertEquals(2, TrigramIndex.distance("briyani", "biryan", 2));
+    assertEquals(3, TrigramIndex.distance("pizza", "biryani", 2));
+  }
+
+  @Test
+  public void findsTokensWithinTheDistanceAllowedForTheLength() {
+    TrigramIndex trigramIndex = new TrigramIndex();
+    for (String token : new String[] {"biryani", "briyani", "biriyani", "bhavan", "dosa",
+        "paneer", "pizza"}) {
+      trigramIndex.add(token);
+    }
+
+    assertEquals(ImmutableSet.of("biryani", "briyani", "biriyani"),
+        trigramIndex.findSimilar("biryani"));
+    assertEquals(ImmutableSet.of("paneer"), trigramIndex.findSimilar("panner"));
+    // Too short for typos to be corrected.
+    assertTrue(trigramIndex.findSimilar("dsa").isEmpty());
+
+    trigramIndex.remove("briyani");
+
+    assertEquals(ImmutableSet.of("biryani", "biriyani"), trigramIndex.findSimilar("biryani"));
+  }
+
+  @Test
+  public void findsTokensContainingTheQueryToken() {
+    TrigramIndex trigramIndex = new TrigramIndex();
+    for (String token : new String[] {"adyar", "yard", "ananda", "a2b", "biryani"}) {
+      trigramIndex.add(token);
+    }
+
+    assertEquals(ImmutableSet.of("adyar"), trigramIndex.findContaining("dyar"));
+    assertEquals(ImmutableSet.of("adyar", "yard"), trigramIndex.findContaining("yar"));
+    assertEquals(ImmutableSet.of("adyar", "yard", "biryani"), trigramIndex.findContaining("ya"));
+    assertEquals(ImmutableSet.of("ananda"), trigramIndex.findContaining("ananda"));
+    assertEquals(ImmutableSet.of("a2b"), trigramIndex.findContaining("2"));
+    assertTrue(trigramIndex.findContaining("yari").isEmpty());
+
+    trigramIndex.remove("adyar");
+
+    assertEquals(ImmutableSet.of("yard"), trigramIndex.findContaining("yar"));
+  }
+
+  @Test
+  public void onlyTokensSharingEnoughTrigramsAreCandidates() {
+    TrigramIndex trigramIndex = new TrigramIndex();
+    for (String token : new String[] {"dose", "dosai", "dal", "daal", "soda", "vada", "idli"}) {
+      trigramIndex.add(token);
+    }
+
+    // "dosa" has 6 padded trigrams and one typo may change 4 of them, so candidates share at
+    // least 2: tokens that merely start with "d" or end with "a" are never compared.
+    assertEquals(ImmutableSet.of("dose", "dosai"), trigramIndex.candidates("dosa", 1));
+    assertEquals(ImmutableSet.of("dose", "dosai"), trigramIndex.findSimilar("dosa"));
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.models.ItemEntity;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+class EntityMapperTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ModelMapper modelMapper = new ModelMapper();
+
+  @Test
+  public void restaurantsMapLikeModelMapper() throws IOException {
+    List<RestaurantEntity> restaurantEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json"),
+        new TypeReference<List<RestaurantEntity>>() {
+        });
+
+    assertFalse(restaurantEntities.isEmpty());
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      Restaurant restaurant = EntityMapper.toRestaurant(restaurantEntity);
+
+      assertEquals(modelMapper.map(restaurantEntity, Restaurant.class), restaurant);
+      assertNotSame(restaurantEntity.getAttributes(), restaurant.getAttributes());
+    }
+  }
+
+  @Test
+  public void restaurantWithMissingFieldsKeepsDtoDefaults() {
+    RestaurantEntity restaurantEntity = new RestaurantEntity();
+    restaurantEntity.setRestaurantId("10");
+    restaurantEntity.setAttributes(null);
+
+    assertEquals(modelMapper.map(restaurantEntity, Restaurant.class),
+        EntityMapper.toRestaurant(restaurantEntity));
+  }
+
+  @Test
+  public void restaurantNamesAreReturnedInTheirDisplayForm() {
+    RestaurantEntity restaurantEntity = new RestaurantEntity();
+    restaurantEntity.setName("Caf\u00C3\u00A9 Coffee Day");
+
+    assertEquals("Cafe Coffee Day", EntityMapper.toRestaurant(restaurantEntity).getName());
+    assertEquals("Caf\u00C3\u00A9 Coffee Day", restaurantEntity.getName());
+
+    restaurantEntity.setName("Dosa Plaza");
+
+    assertEquals("Dosa Plaza", EntityMapper.toRestaurant(restaurantEntity).getName());
+  }
+
+  @Test
+  public void itemsMapLikeModelMapper() throws IOException {
+    ItemEntity itemEntity = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/item_dosai.json"), ItemEntity.class);
+
+    assertEquals(modelMapper.map(itemEntity, Item.class), EntityMapper.toItem(itemEntity));
+  }
+
+  @Test
+  public void menuItemsAreCopied() throws IOException {
+    List<MenuEntity> menuEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_menus.json"),
+        new TypeReference<List<MenuEntity>>() {
+        });
+
+    assertFalse(menuEntities.isEmpty());
+    for (MenuEntity menuEntity : menuEntities) {
+      List<Item> items = EntityMapper.toItems(menuEntity);
+
+      assertEquals(menuEntity.getItems(), items);
+      for (int i = 0; i < items.size(); i++) {
+        assertNotSame(menuEntity.getItems().get(i), items.get(i));
+      }
+    }
+  }
+}
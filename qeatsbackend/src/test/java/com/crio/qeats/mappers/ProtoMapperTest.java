@@ -0,0 +1,111 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.exchanges.RestaurantFields;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ProtoMapperTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void restaurantsResponseSurvivesTheWire() throws IOException {
+    List<Restaurant> restaurants = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/mocking_list_of_restaurants.json"),
+        new TypeReference<List<Restaurant>>() {
+        });
+    assertFalse(restaurants.isEmpty());
+    GetRestaurantsResponse getRestaurantsResponse = new GetRestaurantsResponse(restaurants);
+    getRestaurantsResponse.setPartial(true);
+    getRestaurantsResponse.setNextCursor("MTA");
+
+    GetRestaurantsResponse readBack = ProtoMapper.getRestaurantsResponseFromProto(
+        ProtoMapper.toProto(getRestaurantsResponse));
+
+    assertEquals(getRestaurantsResponse, readBack);
+    assertTrue(readBack.isPartial());
+    assertEquals("MTA", readBack.getNextCursor());
+  }
+
+  @Test
+  public void fieldsAreWrittenWithTheTagsOfQeatsProto() {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setRestaurantId("1");
+    restaurant.setLatitude(1.0);
+    restaurant.setAttributes(Arrays.asList("A"));
+
+    // restaurant_id = 1 (length delimited), latitude = 5 (fixed64), attributes = 9.
+    assertArrayEquals(new byte[] {0x0a, 1, '1', 0x29, 0, 0, 0, 0, 0, 0, (byte) 0xf0, 0x3f,
+        0x4a, 1, 'A'}, ProtoMapper.toProto(restaurant));
+  }
+
+  @Test
+  public void nullFieldsAreLeftUnset() throws IOException {
+    Restaurant restaurant = new Restaurant();
+    restaurant.setAttributes(null);
+
+    assertEquals(0, ProtoMapper.toProto(restaurant).length);
+    assertEquals(0, ProtoMapper.toProto(new GetRestaurantsResponse(null)).length);
+
+    Restaurant readBack = ProtoMapper.restaurantFromProto(ProtoMapper.toProto(restaurant));
+    assertNull(readBack.getName());
+    assertNull(readBack.getOpensAt());
+    assertTrue(readBack.getAttributes().isEmpty());
+  }
+
+  @Test
+  public void unknownFieldsAreSkipped() throws IOException {
+    // A restaurant with an unknown varint field 15 ahead of its name.
+    Restaurant restaurant = ProtoMapper.restaurantFromProto(
+        new byte[] {0x78, 0x2a, 0x12, 3, 'A', '2', 'B'});
+
+    assertEquals("A2B", restaurant.getName());
+  }
+
+  @Test
+  public void onlyTheFieldsAskedForAreSet() throws IOException {
+    Restaurant restaurant = new Restaurant("10", "A2B", "Btm Layout", "www.google.com", 20.0,
+        30.0, "10:00", "23:00", Arrays.asList("Tamil"));
+
+    Restaurant readBack = ProtoMapper.getRestaurantsResponseFromProto(ProtoMapper.toProto(
+        new GetRestaurantsResponse(Arrays.asList(restaurant)),
+        RestaurantFields.parse("name,imageUrl"))).getRestaurants().get(0);
+
+    assertEquals("10", readBack.getRestaurantId());
+    assertEquals("A2B", readBack.getName());
+    assertEquals("www.google.com", readBack.getImageUrl());
+    assertNull(readBack.getCity());
+    assertEquals(0.0, readBack.getLatitude());
+    assertTrue(readBack.getAttributes().isEmpty());
+  }
+
+  @Test
+  public void itemSurvivesTheWire() throws IOException {
+    Item item = new Item("5c9a1b", "10", "Idly", "www.google.com",
+        Arrays.asList("South Indian"), 35);
+
+    assertEquals(item, ProtoMapper.itemFromProto(ProtoMapper.toProto(item)));
+  }
+}
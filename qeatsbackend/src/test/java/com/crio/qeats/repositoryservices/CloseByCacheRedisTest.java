@@ -0,0 +1,137 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.CacheCodec;
+import com.crio.qeats.cache.CacheCodecs;
+import com.crio.qeats.cache.CloseByCacheEntry;
+import com.crio.qeats.cache.CloseByRestaurantCache;
+import com.crio.qeats.cache.ServingCell;
+import com.crio.qeats.configs.RedisConfiguration;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.globals.GlobalConstants;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.repositories.RestaurantRepository;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import redis.clients.jedis.Jedis;
+
+@SpringBootTest(classes = {QEatsApplication.class})
+@DirtiesContext
+@ActiveProfiles("test")
+class CloseByCacheRedisTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+  private static final LocalTime CURRENT_TIME = LocalTime.of(18, 1);
+
+  @Autowired
+  private RestaurantRepositoryService restaurantRepositoryService;
+  @Autowired
+  private CloseByRestaurantCache closeByRestaurantCache;
+  @Autowired
+  private RedisConfiguration redisConfiguration;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Value("${qeats.closeby-cache.codec:smile}")
+  private String codecFormat;
+
+  @Value("${qeats.closeby-cache.compression-threshold-bytes:1024}")
+  private int compressionThresholdInBytes;
+
+  @MockBean
+  private RestaurantRepository mockRestaurantRepository;
+
+  @AfterEach
+  void teardown() {
+    redisConfiguration.destroyCache();
+  }
+
+  @Test
+  void closeByEntryIsStoredUnderTheCellKeyUntilItsHardExpiry() throws Exception {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+    ServingCell servingCell = ServingCell.of(20.0, 30.0, 3.0);
+    String cacheKey = servingCell.getCacheKey(CURRENT_TIME);
+
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, CURRENT_TIME, 3.0);
+
+    // Serving radius, geohash bits of the cell for that radius, then the time window.
+    assertTrue(cacheKey.matches("restaurants:closeby:3\\.0:[01]{27}:\\d+"), cacheKey);
+    try (Jedis jedis = redisConfiguration.getJedisPool().getResource()) {
+      byte[] value = jedis.get(cacheKey.getBytes(StandardCharsets.UTF_8));
+      assertNotNull(value);
+      CacheCodec<CloseByCacheEntry> codec = CacheCodecs.forFormat(codecFormat,
+          CloseByCacheEntry.class, compressionThresholdInBytes);
+      CloseByCacheEntry entry = codec.decode(value);
+      assertTrue(entry.getRestaurantIds().containsAll(Arrays.asList("11", "12")));
+      assertTrue(entry.getSoftExpiresAtMillis() <= entry.getHardExpiresAtMillis());
+
+      long ttlInMillis = jedis.pttl(cacheKey);
+      assertTrue(ttlInMillis > 0, "ttl " + ttlInMillis);
+      assertTrue(ttlInMillis <= entry.getHardExpiresAtMillis() - System.currentTimeMillis() + 1000,
+          "ttl " + ttlInMillis);
+
+      String catalogKey = "restaurants:catalog:v3:11";
+      Restaurant restaurant = CacheCodecs.forFormat(codecFormat, Restaurant.class, -1)
+          .decode(jedis.get(catalogKey.getBytes(StandardCharsets.UTF_8)));
+      assertEquals("11", restaurant.getRestaurantId());
+      long catalogTtlInSeconds = jedis.ttl(catalogKey);
+      assertTrue(catalogTtlInSeconds > 0
+          && catalogTtlInSeconds <= GlobalConstants.REDIS_ENTRY_EXPIRY_IN_SECONDS,
+          "ttl " + catalogTtlInSeconds);
+    }
+  }
+
+  @Test
+  void nodeWithoutTheEntryLocallyReadsItBackFromRedis() throws Exception {
+    when(mockRestaurantRepository.findAll()).thenReturn(listOfRestaurants());
+
+    List<Restaurant> computed = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, CURRENT_TIME, 3.0);
+    closeByRestaurantCache.invalidateLocal();
+    List<Restaurant> readBack = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, CURRENT_TIME, 3.0);
+
+    verify(mockRestaurantRepository, times(1)).findAll();
+    assertEquals(ids(computed), ids(readBack));
+    assertEquals(Arrays.asList("11", "12"), ids(readBack));
+  }
+
+  private List<RestaurantEntity> listOfRestaurants() throws Exception {
+    String fixture =
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json");
+
+    return objectMapper.readValue(fixture, new TypeReference<List<RestaurantEntity>>() {
+    });
+  }
+
+  private static List<String> ids(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+}
@@ -2,12 +2,15 @@ package com.crio.qeats.repositoryservices;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import ch.hsr.geohash.GeoHash;
 import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.cache.CloseByCacheEntry;
+import com.crio.qeats.cache.CloseByRestaurantCache;
+import com.crio.qeats.cache.ServingCell;
 import com.crio.qeats.configs.RedisConfiguration;
 import com.crio.qeats.dto.Restaurant;
 import com.crio.qeats.models.RestaurantEntity;
@@ -17,12 +20,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import javax.inject.Provider;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -49,7 +54,7 @@ class RestaurantRepositoryServiceCacheTest {
   @Autowired
   private ObjectMapper objectMapper;
   @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
+  private CloseByRestaurantCache closeByRestaurantCache;
 
   @Value("${spring.redis.port}")
   private int redisPort;
@@ -79,15 +84,60 @@ class RestaurantRepositoryServiceCacheTest {
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
     allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
-    GeoHash geoHash = GeoHash.withCharacterPrecision(20.0, 30.0, 7);
+    ServingCell servingCell = ServingCell.of(20.0, 30.0, 3.0);
 
     verify(mockRestaurantRepository, times(1)).findAll();
-    assertNotNull(jedis.get(geoHash.toBase32()));
+    assertNotNull(jedis.get(servingCell.getCacheKey(LocalTime.of(18, 1))));
     assertEquals(2, allRestaurantsCloseBy.size());
     assertEquals("11", allRestaurantsCloseBy.get(0).getRestaurantId());
     assertEquals("12", allRestaurantsCloseBy.get(1).getRestaurantId());
   }
 
+  @Test
+  void entryKeepsTheRestaurantsOpeningBeforeItsHardExpiry() throws IOException {
+    List<RestaurantEntity> restaurantEntities = listOfRestaurants();
+    restaurantEntities.forEach(restaurantEntity -> restaurantEntity.setOpensAt("18:10"));
+    when(mockRestaurantRepository.findAll()).thenReturn(restaurantEntities);
+
+    List<Restaurant> beforeOpening = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 9, 30), 3.0);
+    // Same time window, so the same entry, served after the restaurants opened.
+    List<Restaurant> afterOpening = restaurantRepositoryService
+        .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 10, 30), 3.0);
+
+    verify(mockRestaurantRepository, times(1)).findAll();
+    assertTrue(beforeOpening.isEmpty());
+    assertEquals(Arrays.asList("11", "12"), afterOpening.stream()
+        .map(Restaurant::getRestaurantId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void earlyRefreshExtendsTheEntryPastItsSoftExpiry() throws Exception {
+    List<RestaurantEntity> restaurantEntities = listOfRestaurants();
+    restaurantEntities.forEach(restaurantEntity -> restaurantEntity.setClosesAt("18:05"));
+    when(mockRestaurantRepository.findAll()).thenReturn(restaurantEntities);
+    String cacheKey = ServingCell.of(20.0, 30.0, 3.0).getCacheKey(LocalTime.of(18, 1));
+    // What a load at 18:01 soft expires at, taking long enough for any request to refresh it.
+    CloseByCacheEntry staleEntry = new CloseByCacheEntry(
+        System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(4), new ArrayList<>());
+    staleEntry.setHardExpiresAtMillis(staleEntry.getSoftExpiresAtMillis() + 60000);
+    staleEntry.setLoadMillis(TimeUnit.DAYS.toMillis(1));
+    closeByRestaurantCache.put(cacheKey, staleEntry);
+
+    restaurantRepositoryService.findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(18, 1), 3.0);
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (closeByRestaurantCache.get(cacheKey) == staleEntry
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    CloseByCacheEntry refreshedEntry = closeByRestaurantCache.get(cacheKey);
+    // Past the 18:05 closing time, up to the end of the 18:00 - 18:30 window.
+    assertTrue(refreshedEntry.getSoftExpiresAtMillis()
+        > staleEntry.getSoftExpiresAtMillis() + TimeUnit.MINUTES.toMillis(20));
+    assertTrue(refreshedEntry.getRestaurantIds().containsAll(Arrays.asList("11", "12")));
+  }
+
   private List<RestaurantEntity> listOfRestaurants() throws IOException {
     String fixture =
         FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json");
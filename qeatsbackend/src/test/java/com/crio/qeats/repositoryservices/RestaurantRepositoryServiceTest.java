@@ -28,11 +28,9 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import javax.inject.Provider;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -55,8 +53,6 @@ public class RestaurantRepositoryServiceTest {
   private MongoTemplate mongoTemplate;
   @Autowired
   private ObjectMapper objectMapper;
-  @Autowired
-  private Provider<ModelMapper> modelMapperProvider;
 
   @MockBean
   private RestaurantRepository restaurantRepository;
@@ -115,7 +111,6 @@ public class RestaurantRepositoryServiceTest {
     List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.9, 30.0, LocalTime.of(18, 00), 3.0);
 
-    ModelMapper modelMapper = modelMapperProvider.get();
     assertEquals(0, allRestaurantsCloseBy.size());
   }
 
@@ -127,7 +122,6 @@ public class RestaurantRepositoryServiceTest {
     List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(17, 59), 3.0);
 
-    ModelMapper modelMapper = modelMapperProvider.get();
     assertEquals(0, allRestaurantsCloseBy.size());
   }
 
@@ -139,7 +133,6 @@ public class RestaurantRepositoryServiceTest {
     List<Restaurant> allRestaurantsCloseBy = restaurantRepositoryService
         .findAllRestaurantsCloseBy(20.0, 30.0, LocalTime.of(23, 01), 3.0);
 
-    ModelMapper modelMapper = modelMapperProvider.get();
     assertEquals(0, allRestaurantsCloseBy.size());
   }
 
@@ -0,0 +1,122 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.repositoryservices;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.QEatsApplication;
+import com.crio.qeats.configs.RedisConfiguration;
+import com.crio.qeats.dto.Item;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.indexes.RestaurantIndexLoader;
+import com.crio.qeats.indexes.RestaurantSearchIndex;
+import com.crio.qeats.models.MenuEntity;
+import com.crio.qeats.models.RestaurantEntity;
+import com.crio.qeats.utils.FixtureHelpers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+// Search as configured in production: the shipped application.properties take precedence over
+// the test profile, which turns the in-memory indexes off. Only Redis stays on the test port.
+@SpringBootTest(classes = {QEatsApplication.class})
+@DirtiesContext
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application.properties",
+    properties = "spring.redis.port=6390")
+class RestaurantSearchWithShippedPropertiesTest {
+
+  private static final String FIXTURES = "fixtures/exchanges";
+  private static final LocalTime CURRENT_TIME = LocalTime.of(18, 1);
+
+  @Autowired
+  private RestaurantRepositoryService restaurantRepositoryService;
+  @Autowired
+  private RestaurantIndexLoader restaurantIndexLoader;
+  @Autowired(required = false)
+  private RestaurantSearchIndex restaurantSearchIndex;
+  @Autowired
+  private MongoTemplate mongoTemplate;
+  @Autowired
+  private RedisConfiguration redisConfiguration;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setup() throws Exception {
+    List<RestaurantEntity> restaurantEntities = objectMapper.readValue(
+        FixtureHelpers.fixture(FIXTURES + "/initial_data_set_restaurants.json"),
+        new TypeReference<List<RestaurantEntity>>() {
+        });
+    for (RestaurantEntity restaurantEntity : restaurantEntities) {
+      if ("11".equals(restaurantEntity.getRestaurantId())) {
+        restaurantEntity.setName("A2B Adyar Ananda Bhavan");
+      }
+      mongoTemplate.save(restaurantEntity);
+    }
+    mongoTemplate.save(menu("11", "Chicken Biryani"));
+    mongoTemplate.save(menu("12", "Masala Dosa"));
+    restaurantIndexLoader.rebuild();
+  }
+
+  @AfterEach
+  void teardown() {
+    mongoTemplate.dropCollection(RestaurantEntity.class);
+    mongoTemplate.dropCollection(MenuEntity.class);
+    redisConfiguration.destroyCache();
+  }
+
+  @Test
+  void searchIsAnsweredFromTheSearchIndex() {
+    assertNotNull(restaurantSearchIndex);
+    assertTrue(restaurantSearchIndex.isReady());
+  }
+
+  @Test
+  void nameMatchesInTheMiddleOfAWord() {
+    List<Restaurant> restaurants = restaurantRepositoryService
+        .findRestaurantsByName(20.0, 30.0, "yar", CURRENT_TIME, 3.0);
+
+    assertEquals(Arrays.asList("11"), ids(restaurants));
+  }
+
+  @Test
+  void itemNameMatchesAnyOfItsWords() {
+    List<Restaurant> restaurants = restaurantRepositoryService
+        .findRestaurantsByItemName(20.0, 30.0, "chicken dosa", CURRENT_TIME, 3.0);
+
+    assertEquals(Arrays.asList("11", "12"), ids(restaurants));
+  }
+
+  private static MenuEntity menu(String restaurantId, String itemName) {
+    Item item = new Item();
+    item.setItemId(restaurantId + "1");
+    item.setName(itemName);
+    item.setAttributes(new ArrayList<>());
+    return new MenuEntity("menu" + restaurantId, restaurantId,
+        new ArrayList<>(Arrays.asList(item)));
+  }
+
+  private static List<String> ids(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.crio.qeats.configs.SearchExecutorConfiguration;
+import com.crio.qeats.dto.Restaurant;
+import com.crio.qeats.exchanges.GetRestaurantsRequest;
+import com.crio.qeats.exchanges.GetRestaurantsResponse;
+import com.crio.qeats.repositoryservices.RestaurantRepositoryService;
+import com.crio.qeats.utils.SearchDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RestaurantServiceSearchDeadlineTest {
+
+  private static final LocalTime CURRENT_TIME = LocalTime.of(3, 0);
+
+  @Mock
+  private RestaurantRepositoryService restaurantRepositoryService;
+
+  @InjectMocks
+  private RestaurantServiceImpl restaurantService;
+
+  private ExecutorService searchExecutor;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    searchExecutor = SearchExecutorConfiguration.newSearchExecutor(4, 16);
+    meterRegistry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(restaurantService, "searchExecutor", searchExecutor);
+    ReflectionTestUtils.setField(restaurantService, "meterRegistry", meterRegistry);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    searchExecutor.shutdownNow();
+  }
+
+  @Test
+  public void leavesOutAndCancelsSourcesThatMissTheDeadline() throws Exception {
+    ReflectionTestUtils.setField(restaurantService, "searchDeadlineInMillis", 200L);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    when(restaurantRepositoryService.findRestaurantsByName(any(), any(), any(), any(), any()))
+        .thenReturn(restaurants("1"));
+    when(restaurantRepositoryService.findRestaurantsByAttributes(any(), any(), any(), any(),
+        any())).thenAnswer(invocation -> {
+          try {
+            Thread.sleep(10_000);
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return restaurants("2");
+        });
+    when(restaurantRepositoryService.findRestaurantsByItemName(any(), any(), any(), any(),
+        any())).thenReturn(restaurants("3"));
+    when(restaurantRepositoryService.findRestaurantsByItemAttributes(any(), any(), any(), any(),
+        any())).thenReturn(Collections.emptyList());
+
+    long startTime = System.currentTimeMillis();
+    GetRestaurantsResponse response =
+        restaurantService.findRestaurantsBySearchQueryMt(request(), CURRENT_TIME);
+
+    assertTrue(System.currentTimeMillis() - startTime < 5_000);
+    assertTrue(response.isPartial());
+    assertEquals(ids("1", "3"), idsOf(response.getRestaurants()));
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void withoutDeadlineWaitsForEverySourceAndSetsNoQueryTimeLimit() {
+    ReflectionTestUtils.setField(restaurantService, "searchDeadlineInMillis", 0L);
+    List<Long> remainingMillis = Collections.synchronizedList(new ArrayList<>());
+    when(restaurantRepositoryService.findRestaurantsByName(any(), any(), any(), any(), any()))
+        .thenAnswer(invocation -> {
+          remainingMillis.add(SearchDeadline.remainingMillis());
+          return restaurants("1");
+        });
+    when(restaurantRepositoryService.findRestaurantsByAttributes(any(), any(), any(), any(),
+        any())).thenAnswer(invocation -> {
+          Thread.sleep(500);
+          remainingMillis.add(SearchDeadline.remainingMillis());
+          return restaurants("2");
+        });
+    when(restaurantRepositoryService.findRestaurantsByItemName(any(), any(), any(), any(),
+        any())).thenReturn(restaurants("3"));
+    when(restaurantRepositoryService.findRestaurantsByItemAttributes(any(), any(), any(), any(),
+        any())).thenReturn(restaurants("4"));
+
+    GetRestaurantsResponse response =
+        restaurantService.findRestaurantsBySearchQueryMt(request(), CURRENT_TIME);
+
+    assertFalse(response.isPartial());
+    assertEquals(ids("1", "2", "3", "4"), idsOf(response.getRestaurants()));
+    assertEquals(Arrays.asList(-1L, -1L), remainingMillis);
+  }
+
+  @Test
+  public void sourcesRejectedBySaturatedExecutorAreLeftOutWithoutRunningOnTheCaller()
+      throws Exception {
+    ReflectionTestUtils.setField(restaurantService, "searchDeadlineInMillis", 200L);
+    ExecutorService saturatedExecutor = SearchExecutorConfiguration.newSearchExecutor(1, 1);
+    ReflectionTestUtils.setField(restaurantService, "searchExecutor", saturatedExecutor);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // One task on the only thread, one in the queue.
+      for (int i = 0; i < 2; i++) {
+        saturatedExecutor.submit(() -> {
+          release.await();
+          return null;
+        });
+      }
+
+      GetRestaurantsResponse response =
+          restaurantService.findRestaurantsBySearchQueryMt(request(), CURRENT_TIME);
+
+      assertTrue(response.isPartial());
+      assertTrue(response.getRestaurants().isEmpty());
+      verify(restaurantRepositoryService, never())
+          .findRestaurantsByName(any(), any(), any(), any(), any());
+      assertEquals(4.0, meterRegistry.find("qeats.search.source.rejections").counters()
+          .stream().mapToDouble(counter -> counter.count()).sum());
+    } finally {
+      release.countDown();
+      saturatedExecutor.shutdownNow();
+    }
+  }
+
+  private GetRestaurantsRequest request() {
+    GetRestaurantsRequest request = new GetRestaurantsRequest(20.0, 30.0);
+    request.setSearchFor("pizza");
+    return request;
+  }
+
+  private List<Restaurant> restaurants(String... restaurantIds) {
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (String restaurantId : restaurantIds) {
+      Restaurant restaurant = new Restaurant();
+      restaurant.setRestaurantId(restaurantId);
+      restaurants.add(restaurant);
+    }
+    return restaurants;
+  }
+
+  private List<String> ids(String... restaurantIds) {
+    return Arrays.asList(restaurantIds);
+  }
+
+  private List<String> idsOf(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.crio.qeats.dto.Restaurant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class SearchPageTest {
+
+  @Test
+  public void withoutLimitKeepsEveryRestaurantOnceInSourceOrder() {
+    SearchPage searchPage = new SearchPage(null, null);
+    searchPage.addAll(restaurants("3", "1"));
+    searchPage.addAll(restaurants("1", "2", "3"));
+
+    assertFalse(searchPage.isFull());
+    assertEquals(ids("3", "1", "2"), idsOf(searchPage.getRestaurants()));
+    assertNull(searchPage.getNextCursor());
+  }
+
+  @Test
+  public void fillsUpOneBeyondTheLimit() {
+    SearchPage searchPage = new SearchPage(null, 2);
+    searchPage.addAll(restaurants("1", "2"));
+
+    assertFalse(searchPage.isFull());
+
+    searchPage.addAll(restaurants("2", "3", "4"));
+
+    assertTrue(searchPage.isFull());
+    assertEquals(ids("1", "2"), idsOf(searchPage.getRestaurants()));
+  }
+
+  @Test
+  public void nextCursorContinuesAfterThePage() {
+    SearchPage firstPage = new SearchPage(null, 2);
+    firstPage.addAll(restaurants("1", "2", "3", "4", "5"));
+
+    SearchPage secondPage = new SearchPage(firstPage.getNextCursor(), 2);
+    secondPage.addAll(restaurants("1", "2", "3", "4", "5"));
+
+    assertEquals(ids("3", "4"), idsOf(secondPage.getRestaurants()));
+
+    SearchPage lastPage = new SearchPage(secondPage.getNextCursor(), 2);
+    lastPage.addAll(restaurants("1", "2", "3", "4", "5"));
+
+    assertEquals(ids("5"), idsOf(lastPage.getRestaurants()));
+    assertNull(lastPage.getNextCursor());
+  }
+
+  @Test
+  public void cursorNearIntegerMaxValueDoesNotOverflow() {
+    SearchPage searchPage = new SearchPage(SearchPage.encodeCursor(Integer.MAX_VALUE - 1), 10);
+    searchPage.addAll(restaurants("1", "2", "3"));
+
+    assertFalse(searchPage.isFull());
+    assertTrue(searchPage.getRestaurants().isEmpty());
+    assertNull(searchPage.getNextCursor());
+  }
+
+  @Test
+  public void rejectsMalformedCursorAndLimit() {
+    assertThrows(IllegalArgumentException.class, () -> new SearchPage("not a cursor", 2));
+    assertThrows(IllegalArgumentException.class,
+        () -> new SearchPage(SearchPage.encodeCursor(-1), 2));
+    assertThrows(IllegalArgumentException.class, () -> new SearchPage(null, 0));
+  }
+
+  private List<Restaurant> restaurants(String... restaurantIds) {
+    List<Restaurant> restaurants = new ArrayList<>();
+    for (String restaurantId : restaurantIds) {
+      Restaurant restaurant = new Restaurant();
+      restaurant.setRestaurantId(restaurantId);
+      restaurants.add(restaurant);
+    }
+    return restaurants;
+  }
+
+  private List<String> ids(String... restaurantIds) {
+    return Arrays.asList(restaurantIds);
+  }
+
+  private List<String> idsOf(List<Restaurant> restaurants) {
+    return restaurants.stream().map(Restaurant::getRestaurantId).collect(Collectors.toList());
+  }
+}
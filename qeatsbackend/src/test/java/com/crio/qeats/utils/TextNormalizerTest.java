@@ -0,0 +1,44 @@
+/*
+ *
+ *  * Copyright (c) Crio.Do 2019. All rights reserved
+ *
+ */
+
+package com.crio.qeats.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class TextNormalizerTest {
+
+  @Test
+  public void repairsUtf8ReadAsWindows1252() {
+    assertEquals("Café Coffee Day", TextNormalizer.repairMojibake("CafÃ© Coffee Day"));
+    assertEquals("Café “Bar’s”",
+        TextNormalizer.repairMojibake("CafÃ© â€œBarâ€™sâ€\u009d"));
+  }
+
+  @Test
+  public void leavesTextThatIsNotMojibakeAlone() {
+    assertEquals("A2B", TextNormalizer.repairMojibake("A2B"));
+    assertEquals("Château", TextNormalizer.repairMojibake("Château"));
+    assertEquals("Ãbc", TextNormalizer.repairMojibake("Ãbc"));
+  }
+
+  @Test
+  public void displayNameKeepsReplacingUnrenderableCharacters() {
+    assertEquals("Cafe Coffee Day", TextNormalizer.displayName("CafÃ© Coffee Day"));
+    assertEquals("Cafe", TextNormalizer.displayName("Café"));
+    assertEquals("Beijing Bites e", TextNormalizer.displayName("Beijing Bites Â©"));
+    assertNull(TextNormalizer.displayName(null));
+  }
+
+  @Test
+  public void searchFormIsRepairedUnaccentedAndLowerCased() {
+    assertEquals("cafe coffee day", TextNormalizer.searchForm("CafÃ© Coffee Day"));
+    assertEquals("chateau", TextNormalizer.searchForm("Château"));
+    assertEquals("naive", TextNormalizer.searchForm("NAÏVE"));
+  }
+}